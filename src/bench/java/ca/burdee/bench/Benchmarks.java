@@ -0,0 +1,140 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Helpers shared by the benchmarks and regression checks under src/bench.
+ * Each benchmark is a plain main class, run by the bench target of the Ant
+ * build. A regression check fails the build by exiting with a non-zero
+ * status through {@link #check(boolean, String)}.
+ */
+public final class Benchmarks {
+
+	/**
+	 * How long a measured operation is run before it is timed, so that the
+	 * JIT has compiled it, in milliseconds.
+	 */
+	private static final long WARMUP_TIME = 1000;
+
+	/**
+	 * How long a measured operation is timed, in milliseconds.
+	 */
+	private static final long MEASUREMENT_TIME = 2000;
+
+	private Benchmarks() {
+		// Utility class.
+	}
+
+	/**
+	 * Runs an operation repeatedly for a fixed time and prints the average
+	 * time it took. The operation is first run for a while without being
+	 * timed, so that the JIT has compiled it.
+	 * 
+	 * @param name
+	 *            The name of the operation to print.
+	 * @param operation
+	 *            The operation to measure.
+	 * @return The average time of a run, in nanoseconds.
+	 */
+	public static double time(String name, Runnable operation) {
+		runFor(WARMUP_TIME, operation);
+		long start = System.nanoTime();
+		long runs = runFor(MEASUREMENT_TIME, operation);
+		double nanos = (double) (System.nanoTime() - start) / runs;
+		System.out.printf("%-55s %14.1f ns/op%n", name, nanos);
+		return nanos;
+	}
+
+	/**
+	 * Runs an operation repeatedly until the given time has passed. The
+	 * clock is read after batches that grow up to 1024 runs, so that reading
+	 * it does not dominate fast operations.
+	 * 
+	 * @return The number of runs.
+	 */
+	private static long runFor(long millis, Runnable operation) {
+		long deadline = System.nanoTime() + millis * 1000000;
+		long runs = 0;
+		int batch = 1;
+		while (System.nanoTime() < deadline) {
+			for (int i = 0; i < batch; i++) {
+				operation.run();
+			}
+			runs += batch;
+			if (batch < 1024) {
+				batch *= 2;
+			}
+		}
+		return runs;
+	}
+
+	/**
+	 * Gets the number of bytes the current thread has allocated so far.
+	 * 
+	 * @return The allocated bytes, or -1 if the JVM does not report them.
+	 */
+	public static long getAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+			if (sunThreads.isThreadAllocatedMemorySupported()) {
+				if (!sunThreads.isThreadAllocatedMemoryEnabled()) {
+					sunThreads.setThreadAllocatedMemoryEnabled(true);
+				}
+				return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the heap in use after collecting as much garbage as possible.
+	 * 
+	 * @return The used heap, in bytes.
+	 */
+	public static long getUsedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+		}
+		return used;
+	}
+
+	/**
+	 * Fails the current check if a condition does not hold.
+	 * 
+	 * @param condition
+	 *            The condition that must hold.
+	 * @param message
+	 *            The reason printed when it does not.
+	 */
+	public static void check(boolean condition, String message) {
+		if (!condition) {
+			System.err.println("FAILED: " + message);
+			System.exit(1);
+		}
+	}
+
+}
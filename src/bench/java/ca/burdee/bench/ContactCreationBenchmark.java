@@ -0,0 +1,61 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
+
+/**
+ * Measures how long it takes to create 100,000 {@link Contact}s at startup,
+ * each with a generated 64-bit id, against the cost of the random UUID
+ * string that every object used to get in its constructor.
+ */
+public class ContactCreationBenchmark {
+
+	private static final int CONTACTS = 100000;
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		for (int round = 1; round <= ROUNDS; round++) {
+			long start = System.nanoTime();
+			List<Contact> contacts = new ArrayList<Contact>(CONTACTS);
+			for (int i = 0; i < CONTACTS; i++) {
+				contacts.add(new Contact("Contact " + i, "contact" + i + "@example.com", Status.OFFLINE));
+			}
+			long contactNanos = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			List<String> uuids = new ArrayList<String>(CONTACTS);
+			for (int i = 0; i < CONTACTS; i++) {
+				uuids.add(UUID.randomUUID().toString());
+			}
+			long uuidNanos = System.nanoTime() - start;
+			
+			System.out.printf("round %d: %,d contacts created in %,d ms; " + 
+					"their random UUIDs alone would add %,d ms%n", 
+					round, contacts.size(), contactNanos / 1000000, uuidNanos / 1000000);
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.bench;
+
+import ca.burdee.object.BurdeeRoot;
+import ca.burdee.object.account.Account;
+import ca.burdee.object.account.XMPPAccount;
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
+
+/**
+ * Checks that {@link Contact#setStatus(Status)} allocates nothing when no
+ * listener will receive the property change, by measuring the bytes the
+ * current thread allocates over many changes. It fails if a change
+ * allocates more than {@link #MAX_BYTES_PER_CHANGE} bytes on average, which
+ * leaves room for the measurement itself but not for an event object.
+ * <p>
+ * The same is checked for a {@link Contact} in an {@link Account}, which
+ * moves it between its {@link Status} buckets, and for one in an
+ * {@link Account} of a {@link BurdeeRoot}, whose own hierarchy listeners do
+ * not receive status changes.
+ */
+public class EventAllocationCheck {
+
+	private static final int CHANGES = 1000000;
+
+	/**
+	 * The most bytes a change may allocate on average. The smallest event
+	 * object takes more than this.
+	 */
+	private static final double MAX_BYTES_PER_CHANGE = 1;
+
+	public static void main(String[] args) {
+		Benchmarks.check(Benchmarks.getAllocatedBytes() >= 0, 
+				"this JVM does not report the bytes a thread allocates");
+		
+		double bytes = measure("unobserved Contact.setStatus", 
+				new Contact("Contact", "contact@example.com", Status.OFFLINE));
+		Benchmarks.check(bytes <= MAX_BYTES_PER_CHANGE, 
+				"an unobserved property change allocated " + bytes + " bytes");
+		
+		bytes = measure("Contact.setStatus in an Account", createContact(null));
+		Benchmarks.check(bytes <= MAX_BYTES_PER_CHANGE, 
+				"a property change in an Account allocated " + bytes + " bytes");
+		
+		bytes = measure("Contact.setStatus in an Account of a BurdeeRoot", 
+				createContact(new BurdeeRoot()));
+		Benchmarks.check(bytes <= MAX_BYTES_PER_CHANGE, 
+				"a property change below a BurdeeRoot allocated " + bytes + " bytes");
+	}
+
+	/**
+	 * Creates a {@link Contact} in a new {@link Account}, which is added to a
+	 * {@link BurdeeRoot} if one is given.
+	 */
+	private static Contact createContact(BurdeeRoot root) {
+		Account account = new XMPPAccount("bench", "example.com");
+		if (root != null) {
+			root.addChild(account);
+		}
+		Contact contact = new Contact("Contact", "contact@example.com", Status.OFFLINE);
+		account.addChild(contact);
+		return contact;
+	}
+
+	/**
+	 * Measures the bytes that changing the status of a {@link Contact}
+	 * allocates on average.
+	 */
+	private static double measure(String name, Contact contact) {
+		// Lets the JIT compile the loop before it is measured.
+		toggleStatus(contact);
+		
+		long start = Benchmarks.getAllocatedBytes();
+		toggleStatus(contact);
+		double bytes = (double) (Benchmarks.getAllocatedBytes() - start) / CHANGES;
+		
+		System.out.printf("%-50s %.3f bytes allocated per change%n", name + ":", bytes);
+		return bytes;
+	}
+
+	private static void toggleStatus(Contact contact) {
+		for (int i = 0; i < CHANGES; i++) {
+			contact.setStatus((i & 1) == 0 ? Status.ONLINE : Status.OFFLINE);
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ca.burdee.object.BurdeeObject;
+import ca.burdee.object.account.Account;
+import ca.burdee.object.account.XMPPAccount;
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
+
+/**
+ * Measures {@link Account#getChildren(Class)} for {@link Contact}s on an
+ * {@link Account} with 50,000 {@link Contact}s, against the copy and filter
+ * over {@link Account#getChildren()} that it replaced. Both are measured
+ * with and without iterating over the result, and with the bytes each call
+ * allocates.
+ */
+public class GetChildrenBenchmark {
+
+	private static final int CONTACTS = 50000;
+
+	/**
+	 * Keeps the results alive so that the JIT cannot remove the measured
+	 * calls.
+	 */
+	private static int sink;
+
+	public static void main(String[] args) {
+		final Account account = new XMPPAccount("bench", "example.com");
+		List<Contact> contacts = new ArrayList<Contact>(CONTACTS);
+		for (int i = 0; i < CONTACTS; i++) {
+			contacts.add(new Contact("Contact " + i, "contact" + i + "@example.com", Status.OFFLINE));
+		}
+		account.addChildren(contacts);
+		
+		Benchmarks.time("getChildren(Contact.class)", new Runnable() {
+			@Override
+			public void run() {
+				sink += account.getChildren(Contact.class).size();
+			}
+		});
+		Benchmarks.time("getChildren(Contact.class) and iterate", new Runnable() {
+			@Override
+			public void run() {
+				for (Contact contact : account.getChildren(Contact.class)) {
+					sink += contact.getStatus().ordinal();
+				}
+			}
+		});
+		Benchmarks.time("copy and filter getChildren() (replaced)", new Runnable() {
+			@Override
+			public void run() {
+				sink += filterChildren(account, Contact.class).size();
+			}
+		});
+		Benchmarks.time("copy and filter getChildren() and iterate (replaced)", new Runnable() {
+			@Override
+			public void run() {
+				for (Contact contact : filterChildren(account, Contact.class)) {
+					sink += contact.getStatus().ordinal();
+				}
+			}
+		});
+		
+		long start = Benchmarks.getAllocatedBytes();
+		for (int i = 0; i < 100; i++) {
+			for (Contact contact : account.getChildren(Contact.class)) {
+				sink += contact.getStatus().ordinal();
+			}
+		}
+		long viewBytes = (Benchmarks.getAllocatedBytes() - start) / 100;
+		start = Benchmarks.getAllocatedBytes();
+		for (int i = 0; i < 20; i++) {
+			sink += filterChildren(account, Contact.class).size();
+		}
+		long filterBytes = (Benchmarks.getAllocatedBytes() - start) / 20;
+		System.out.printf("allocated per call: %,d bytes with the view, %,d bytes with copy and filter%n", 
+				viewBytes, filterBytes);
+		if (sink == 42) {
+			System.out.println();
+		}
+	}
+
+	/**
+	 * The implementation of {@link Account#getChildren(Class)} before the
+	 * children were stored by type.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends BurdeeObject> List<T> filterChildren(BurdeeObject parent, Class<T> type) {
+		List<T> children = new ArrayList<T>();
+		for (BurdeeObject child : new ArrayList<BurdeeObject>(parent.getChildren())) {
+			if (type.isAssignableFrom(child.getClass())) {
+				children.add((T) child);
+			}
+		}
+		return children;
+	}
+
+}
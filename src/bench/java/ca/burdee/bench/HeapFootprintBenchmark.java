@@ -0,0 +1,80 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ca.burdee.object.BurdeeRoot;
+import ca.burdee.object.account.Account;
+import ca.burdee.object.account.XMPPAccount;
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
+
+/**
+ * Measures the heap taken by 10,000, 100,000 and 1,000,000 {@link Contact}s,
+ * first on their own and then in an {@link Account} of a {@link BurdeeRoot},
+ * which adds the children lists, the address and status indexes and the id
+ * registry. The names and addresses are created before measuring, since
+ * they are the same whatever stores the {@link Contact}s, so the results are
+ * the cost of the {@link Contact}s and the structures that hold them.
+ */
+public class HeapFootprintBenchmark {
+
+	private static final int[] SIZES = { 10000, 100000, 1000000 };
+
+	public static void main(String[] args) {
+		for (int size : SIZES) {
+			measure(size);
+		}
+	}
+
+	private static void measure(int size) {
+		String[] names = new String[size];
+		String[] addresses = new String[size];
+		for (int i = 0; i < size; i++) {
+			names[i] = "Contact " + i;
+			addresses[i] = "contact" + i + "@example.com";
+		}
+
+		long start = Benchmarks.getUsedHeap();
+		List<Contact> contacts = new ArrayList<Contact>(size);
+		for (int i = 0; i < size; i++) {
+			contacts.add(new Contact(names[i], addresses[i], Status.OFFLINE));
+		}
+		long bare = Benchmarks.getUsedHeap() - start;
+
+		BurdeeRoot root = new BurdeeRoot();
+		Account account = new XMPPAccount("bench", "example.com");
+		root.addChild(account);
+		account.addChildren(contacts);
+		contacts = null;
+		long inRoot = Benchmarks.getUsedHeap() - start;
+
+		System.out.printf("%,9d contacts: %6.1f bytes per Contact, " +
+				"%6.1f bytes per Contact in an Account of a BurdeeRoot (%,d MB)%n",
+				size, (double) bare / size, (double) inRoot / size, inRoot / (1024 * 1024));
+
+		// Keeps everything alive until it has been measured.
+		if (root.getChildren().size() != 1 || names.length != addresses.length) {
+			throw new AssertionError();
+		}
+	}
+
+}
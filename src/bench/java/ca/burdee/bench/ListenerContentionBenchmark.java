@@ -0,0 +1,120 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.bench;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ca.burdee.object.AbstractBurdeeListener;
+import ca.burdee.object.BurdeeListener;
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
+
+/**
+ * Measures how fast several threads can fire {@link Contact#setStatus(Status)}
+ * on shared {@link Contact}s while another thread keeps adding and removing
+ * listeners on them. Dispatch walks a snapshot of the listeners without a
+ * lock, so the firing threads should neither block each other nor fail while
+ * the listeners churn.
+ */
+public class ListenerContentionBenchmark {
+
+	private static final int CONTACTS = 64;
+
+	private static final int DURATION = 3000;
+
+	public static void main(String[] args) throws InterruptedException {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 
+			Runtime.getRuntime().availableProcessors() * 2;
+		
+		final List<Contact> contacts = new ArrayList<Contact>();
+		final AtomicLong delivered = new AtomicLong();
+		for (int i = 0; i < CONTACTS; i++) {
+			Contact contact = new Contact("Contact " + i, "contact" + i + "@example.com", Status.OFFLINE);
+			contact.addBurdeeListener(new AbstractBurdeeListener() {
+				@Override
+				public void propertyChange(PropertyChangeEvent evt) {
+					delivered.incrementAndGet();
+				}
+			});
+			contacts.add(contact);
+		}
+		
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final AtomicLong fired = new AtomicLong();
+		final CountDownLatch finished = new CountDownLatch(threads + 1);
+		final Status[] statuses = Status.values();
+		
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						long count = 0;
+						for (int i = offset; running.get(); i++) {
+							contacts.get(i % CONTACTS).setStatus(statuses[(i / CONTACTS) % statuses.length]);
+							count++;
+						}
+						fired.addAndGet(count);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						finished.countDown();
+					}
+				}
+			}, "setStatus " + t).start();
+		}
+		
+		final AtomicLong churned = new AtomicLong();
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					BurdeeListener listener = new AbstractBurdeeListener();
+					for (int i = 0; running.get(); i++) {
+						Contact contact = contacts.get(i % CONTACTS);
+						contact.addBurdeeListener(listener);
+						contact.removeBurdeeListener(listener);
+						churned.incrementAndGet();
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					finished.countDown();
+				}
+			}
+		}, "listener churn").start();
+		
+		Thread.sleep(DURATION);
+		running.set(false);
+		finished.await();
+		
+		System.out.printf("%d firing threads: %,d setStatus/s, %,d listener add/remove pairs/s, %,d events delivered%n", 
+				threads, fired.get() * 1000 / DURATION, churned.get() * 1000 / DURATION, delivered.get());
+		Benchmarks.check(failure.get() == null, "a thread failed: " + failure.get());
+	}
+
+}
@@ -27,6 +27,11 @@ import javax.swing.UIManager;
 
 import ca.burdee.object.BurdeeObject;
 import ca.burdee.object.BurdeeRoot;
+import ca.burdee.object.account.Account;
+import ca.burdee.object.account.ConnectionScheduler;
+import ca.burdee.object.account.ConnectionSchedulerListener;
+import ca.burdee.object.account.FailedConnectionException;
+import ca.burdee.object.metrics.ListenerMetrics;
 import ca.burdee.swing.BurdeeFrame;
 
 /**
@@ -42,11 +47,49 @@ public class BurdeeApplication {
 	 */
 	private static final BurdeeRoot root = new BurdeeRoot();
 
+	/**
+	 * The time between two summaries of the {@link ListenerMetrics} in the
+	 * log, in milliseconds.
+	 */
+	private static final long LISTENER_METRICS_LOG_PERIOD = 5 * 60 * 1000;
+
+	/**
+	 * This {@link ConnectionSchedulerListener} logs the progress of the
+	 * {@link Account}s that connect automatically.
+	 */
+	private static final ConnectionSchedulerListener connectionLogger = new ConnectionSchedulerListener() {
+
+		@Override
+		public void connectionStarted(Account account) {
+			logger.fine("Connecting account " + account.getName() + ".");
+		}
+
+		@Override
+		public void connectionSucceeded(Account account) {
+			logger.info("Connected account " + account.getName() + ".");
+		}
+
+		@Override
+		public void connectionFailed(Account account, FailedConnectionException e) {
+			logger.log(Level.WARNING, "Unable to connect account " + account.getName() + ".", e);
+		}
+
+		@Override
+		public void connectionTimedOut(Account account) {
+			logger.warning("Timed out connecting account " + account.getName() + ".");
+		}
+	};
+
 	/**
 	 * This main method initializes the Burdee application. The look and feel of
 	 * the UI is set to be like the system's native look and feel. There are
 	 * also Mac OS X specific hooks that place the menubar on the top of the
-	 * screen like any other Mac OS X application.
+	 * screen like any other Mac OS X application. The {@link ListenerMetrics}
+	 * are exposed through JMX, where they can be turned on, and summarized in
+	 * the log periodically while they are on, and the progress of the
+	 * automatic connections is logged. However the application exits, the
+	 * {@link ConnectionScheduler} of the {@link BurdeeRoot} is shut down,
+	 * which cancels the connections still being made.
 	 * 
 	 * @param args
 	 *            The arguments passed in when executing the application.
@@ -65,6 +108,16 @@ public class BurdeeApplication {
 					"continuing with default Java look and feel.", e);
 		}
 		
+		ListenerMetrics.getInstance().register();
+		ListenerMetrics.getInstance().startLogging(LISTENER_METRICS_LOG_PERIOD);
+		root.getConnectionScheduler().addConnectionSchedulerListener(connectionLogger);
+		Runtime.getRuntime().addShutdownHook(new Thread("Burdee shutdown") {
+			@Override
+			public void run() {
+				root.getConnectionScheduler().shutdown();
+			}
+		});
+		
 		// Schedules a job for the event-dispatching thread to
 		// create and show the main GUI.
 		SwingUtilities.invokeLater(new Runnable() {
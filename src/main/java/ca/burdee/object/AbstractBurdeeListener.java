@@ -19,6 +19,9 @@
 package ca.burdee.object;
 
 import java.beans.PropertyChangeEvent;
+import java.util.EventObject;
+
+import ca.burdee.object.BurdeeChildEvent.EventType;
 
 /**
  * This is a stub {@link BurdeeListener}. If a listener that does not need to
@@ -39,10 +42,48 @@ public class AbstractBurdeeListener implements BurdeeListener {
 		// Extending classes should implement this method as needed.
 	}
 
+	/**
+	 * Delivers the move as a child removed event from the old parent followed
+	 * by a child added event to the new parent. Extending classes that can
+	 * relocate a child directly should override this method.
+	 */
+	@Override
+	public void childMoved(BurdeeChildEvent evt) {
+		childRemoved(new BurdeeChildEvent(evt.getOldParent(), evt.getChild(), 
+				evt.getOldIndex(), EventType.REMOVED));
+		childAdded(new BurdeeChildEvent(evt.getSource(), evt.getChild(), 
+				evt.getIndex(), EventType.ADDED));
+	}
+
 	@Override
 	public void propertyChange(PropertyChangeEvent evt) {
 		// Stub method.
 		// Extending classes should implement this method as needed.
 	}
 
+	/**
+	 * Replays each of the events in the transaction, in order, through
+	 * {@link #childAdded(BurdeeChildEvent)},
+	 * {@link #childRemoved(BurdeeChildEvent)}, and
+	 * {@link #propertyChange(PropertyChangeEvent)}. Extending classes that can
+	 * handle the whole transaction at once should override this method.
+	 */
+	@Override
+	public void transactionCommitted(BurdeeTransactionEvent evt) {
+		for (EventObject event : evt.getEvents()) {
+			if (event instanceof BurdeeChildEvent) {
+				BurdeeChildEvent childEvent = (BurdeeChildEvent) event;
+				if (childEvent.getType() == EventType.ADDED) {
+					childAdded(childEvent);
+				} else if (childEvent.getType() == EventType.REMOVED) {
+					childRemoved(childEvent);
+				} else {
+					childMoved(childEvent);
+				}
+			} else if (event instanceof PropertyChangeEvent) {
+				propertyChange((PropertyChangeEvent) event);
+			}
+		}
+	}
+
 }
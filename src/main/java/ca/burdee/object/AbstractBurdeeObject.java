@@ -20,12 +20,20 @@ package ca.burdee.object;
 
 import java.beans.PropertyChangeEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EventObject;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import javax.swing.tree.TreePath;
 
 import ca.burdee.object.BurdeeChildEvent.EventType;
+import ca.burdee.object.metrics.ListenerMetrics;
 import ca.burdee.object.util.BurdeeUtils;
+import ca.burdee.object.util.IdentityIndexedList;
 
 /**
  * An abstract implementation of {@link BurdeeObject}.
@@ -33,10 +41,82 @@ import ca.burdee.object.util.BurdeeUtils;
 public abstract class AbstractBurdeeObject implements BurdeeObject {
 	
 	/**
-	 * The {@link List} of {@link BurdeeListener}s that listen on this
+	 * The {@link BurdeeListener}s that listen on this {@link BurdeeObject}. The
+	 * {@link BurdeeListenerSet} itself is never modified; adding or removing a
+	 * listener swaps in a new copy. This lets events be fired from the current
+	 * snapshot without holding a lock, and lets listeners be added or removed
+	 * while an event is being dispatched.
+	 */
+	private volatile BurdeeListenerSet listeners = BurdeeListenerSet.EMPTY;
+
+	/**
+	 * The {@link BurdeeListener}s that listen on this {@link BurdeeObject} and
+	 * all of its descendants. Events fired anywhere in the subtree bubble up
+	 * the parent chain to these listeners. Like {@link #listeners}, the set is
+	 * never modified in place.
+	 */
+	private volatile BurdeeListenerSet hierarchyListeners = BurdeeListenerSet.EMPTY;
+
+	/**
+	 * Swaps {@link #listeners}. A field updater is used instead of an
+	 * AtomicReference per object, since every contact of a large roster is a
 	 * {@link BurdeeObject}.
 	 */
-	private List<BurdeeListener> listeners = new ArrayList<BurdeeListener>();
+	private static final AtomicReferenceFieldUpdater<AbstractBurdeeObject, BurdeeListenerSet> 
+		LISTENERS = AtomicReferenceFieldUpdater.newUpdater(
+				AbstractBurdeeObject.class, BurdeeListenerSet.class, "listeners");
+
+	/**
+	 * Swaps {@link #hierarchyListeners}.
+	 */
+	private static final AtomicReferenceFieldUpdater<AbstractBurdeeObject, BurdeeListenerSet> 
+		HIERARCHY_LISTENERS = AtomicReferenceFieldUpdater.newUpdater(
+				AbstractBurdeeObject.class, BurdeeListenerSet.class, "hierarchyListeners");
+
+	/**
+	 * The shared empty {@link BurdeePropertyListener} table used when no
+	 * property listeners are attached.
+	 */
+	private static final BurdeePropertyListener[][] NO_PROPERTY_LISTENERS = 
+		new BurdeePropertyListener[0][];
+
+	/**
+	 * Records the invocations of the {@link BurdeePropertyListener}s. The
+	 * {@link BurdeeListener}s are recorded by their {@link BurdeeListenerSet}.
+	 */
+	private static final ListenerMetrics metrics = ListenerMetrics.getInstance();
+
+	/**
+	 * The {@link BurdeePropertyListener}s that listen on this
+	 * {@link BurdeeObject}, indexed by {@link BurdeeProperty#getId()}. A
+	 * property with no listeners has a null entry or is beyond the end of the
+	 * table. Neither the table nor its rows are ever modified in place, so a
+	 * property change is delivered by walking a snapshot without holding a
+	 * lock or allocating.
+	 */
+	private volatile BurdeePropertyListener[][] propertyListeners = NO_PROPERTY_LISTENERS;
+	
+	/**
+	 * The lock that serializes updates to {@link #propertyListeners} and
+	 * guards {@link #transactionDepth} and {@link #pendingEvents}. Neither
+	 * critical section calls out of this object, so they can share a lock.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * The number of nested transactions that are currently open on this
+	 * {@link BurdeeObject}. This is volatile so that firing an event outside
+	 * of a transaction does not need to take {@link #lock}.
+	 * 
+	 * @see #begin()
+	 */
+	private volatile int transactionDepth;
+
+	/**
+	 * The events that were fired during the current transaction and have not
+	 * been delivered yet, or null if there are none.
+	 */
+	private List<EventObject> pendingEvents;
 	
 	/**
 	 * @see #getName()
@@ -44,59 +124,104 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	private String name;
 	
 	/**
+	 * The {@link BurdeeIdGenerator} that assigns the identifiers of new
+	 * {@link BurdeeObject}s.
+	 * 
+	 * @see #setIdGenerator(BurdeeIdGenerator)
+	 */
+	private static volatile BurdeeIdGenerator idGenerator = new SequentialIdGenerator();
+	
+	/**
+	 * @see #getId()
+	 */
+	private final long id;
+	
+	/**
+	 * The {@link String} form of {@link #id}. It is only created the first
+	 * time {@link #getUuid()} is called, since most objects never need it.
+	 * 
 	 * @see #getUuid()
 	 */
-	private final String uuid;
+	private String uuid;
 	
 	/**
 	 * @see #getParent()
 	 */
 	private BurdeeObject parent;
+
+	/**
+	 * The storage of child {@link BurdeeObject}s, keyed by allowed child type.
+	 * This is created the first time it is needed rather than in the
+	 * constructor, because {@link #getAllowedChildTypes()} is implemented by
+	 * the extending class.
+	 * 
+	 * @see #getChildStore()
+	 */
+	private volatile ChildStore childStore;
+
+	/**
+	 * The cached path from the top ancestor to this object. It is cleared by
+	 * {@link #setParent(BurdeeObject)}, and it is also stale whenever its
+	 * parent path is no longer the current path of the parent, which happens
+	 * when an ancestor is given a new parent.
+	 * 
+	 * @see #getTreePath()
+	 */
+	private volatile TreePath treePath;
 	
 	/**
 	 * Creates a new abstract implementation of {@link BurdeeObject}.
 	 */
 	public AbstractBurdeeObject() {
-		uuid = UUID.randomUUID().toString();
+		id = idGenerator.nextId();
+	}
+	
+	/**
+	 * Sets the {@link BurdeeIdGenerator} that assigns the identifiers of
+	 * {@link BurdeeObject}s created from now on. Identifiers must stay unique
+	 * across generators, so this should be done before any
+	 * {@link BurdeeObject} is created.
+	 * 
+	 * @param generator
+	 *            The {@link BurdeeIdGenerator} to use.
+	 */
+	public static void setIdGenerator(BurdeeIdGenerator generator) {
+		if (generator == null) {
+			throw new IllegalArgumentException("The id generator cannot be null.");
+		}
+		idGenerator = generator;
+	}
+	
+	/**
+	 * Gets the {@link BurdeeIdGenerator} that assigns the identifiers of new
+	 * {@link BurdeeObject}s.
+	 */
+	public static BurdeeIdGenerator getIdGenerator() {
+		return idGenerator;
 	}
 	
 	@Override
 	public void addChild(BurdeeObject child) {
-		if (child == null) {
-			throw new IllegalArgumentException("Cannot add null children to parent " + 
-					getName() + " of type " + getClass() + ".");
-		} else if (!allowsChildType(child.getClass())) {
-			throw new IllegalArgumentException("Could not add child " + child.getName() +
-					" of type " + child.getClass() + " because the parent " + getName() +
-					" of type " + getClass() + " does not allow this child type");
-		} else if (getChildren().contains(child)) {
-			throw new IllegalArgumentException("Could not add child " + child.getName() +
-					" of type " + child.getClass() + " because the parent " + getName() +
-					" of type " + getClass() + " already contains this child.");
-		}
-		int index = getChildren(child.getClass()).size();
+		checkCanAddChild(child);
+		int index = getChildStore().getList(child.getClass()).size();
 		addChildImpl(child, index);
 		child.setParent(this);
+		BurdeeRoot root = getRoot();
+		if (root != null) {
+			root.register(child);
+		}
 		fireChildAdded(child, index);
 	}
 
 	@Override
 	public void addChild(BurdeeObject child, int index) {
-		if (child == null) {
-			throw new IllegalArgumentException("Cannot add null children to parent " + 
-					getName() + " of type " + getClass() + ".");
-		} else if (!allowsChildType(child.getClass())) {
-			throw new IllegalArgumentException("Could not add child " + child.getName() +
-					" of type " + child.getClass() + " because the parent " + getName() +
-					" of type " + getClass() + " does not allow this child type");
-		} else if (getChildren().contains(child)) {
-			throw new IllegalArgumentException("Could not add child " + child.getName() +
-					" of type " + child.getClass() + " because the parent " + getName() +
-					" of type " + getClass() + " already contains this child.");
-		}
-		
+		checkCanAddChild(child);
 		addChildImpl(child, index);
 		child.setParent(this);
+		BurdeeRoot root = getRoot();
+		if (root != null) {
+			root.register(child);
+		}
 		fireChildAdded(child, index);
 	}
 
@@ -106,13 +231,19 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	 * directly. {@link #addChild(BurdeeObject)} should be called instead as it
 	 * performs an initial check to see if the child already exists in the
 	 * parent's list of children and calls {@link #setParent(BurdeeObject)} on
-	 * the child object.
+	 * the child object. By default, the child is stored in the {@link List}
+	 * of children for its allowed child type.
 	 * 
 	 * @param child
 	 *            The child {@link BurdeeObject} to add.
+	 * @param index
+	 *            The index of the child relative to the {@link List} of
+	 *            children of the same type.
 	 * @see #addChild(BurdeeObject)
 	 */
-	protected abstract void addChildImpl(BurdeeObject child, int index);
+	protected void addChildImpl(BurdeeObject child, int index) {
+		getChildStore().getList(child.getClass()).add(index, child);
+	}
 
 	@Override
 	public boolean removeChild(BurdeeObject child) {
@@ -128,11 +259,15 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 					" of type " + child.getClass() + " because the parent " + getName() +
 					" of type " + getClass() + " does not allow this child type");
 		}
-		int index = getChildren().indexOf(child);
+		int index = getChildStore().getList(child.getClass()).indexOf(child);
 		boolean removed = removeChildImpl(child);
 		if (removed) {
+			BurdeeRoot root = getRoot();
+			if (root != null) {
+				root.unregister(child);
+			}
 			fireChildRemoved(child, index);
-			setParent(null);
+			child.setParent(null);
 		}
 		return removed;
 	}
@@ -145,12 +280,243 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	 * {@link #setParent(BurdeeObject)} on the child object to remove the parent
 	 * reference.
 	 * 
+	 * By default, the child is removed from the {@link List} of children for
+	 * its allowed child type.
+	 * 
 	 * @param child
 	 *            The child {@link BurdeeObject} to remove.
 	 * @return true if the child removal was successful.
 	 * @see #removeChild(BurdeeObject)
 	 */
-	protected abstract boolean removeChildImpl(BurdeeObject child);
+	protected boolean removeChildImpl(BurdeeObject child) {
+		return getChildStore().getList(child.getClass()).remove(child);
+	}
+
+	/**
+	 * Checks that a {@link BurdeeObject} can be added as a child of this
+	 * parent.
+	 * 
+	 * @param child
+	 *            The child {@link BurdeeObject} to check.
+	 * @throws IllegalArgumentException
+	 *             If the child is null, is not of an allowed type, or is
+	 *             already a child of this parent.
+	 */
+	private void checkCanAddChild(BurdeeObject child) {
+		if (child == null) {
+			throw new IllegalArgumentException("Cannot add null children to parent " + 
+					getName() + " of type " + getClass() + ".");
+		} else if (!allowsChildType(child.getClass())) {
+			throw new IllegalArgumentException("Could not add child " + child.getName() +
+					" of type " + child.getClass() + " because the parent " + getName() +
+					" of type " + getClass() + " does not allow this child type");
+		} else if (getChildStore().getList(child.getClass()).contains(child)) {
+			throw new IllegalArgumentException("Could not add child " + child.getName() +
+					" of type " + child.getClass() + " because the parent " + getName() +
+					" of type " + getClass() + " already contains this child.");
+		}
+	}
+	
+	@Override
+	public void addChildren(List<? extends BurdeeObject> children) {
+		Set<BurdeeObject> batch = 
+			Collections.newSetFromMap(new IdentityHashMap<BurdeeObject, Boolean>());
+		for (BurdeeObject child : children) {
+			checkCanAddChild(child);
+			if (!batch.add(child)) {
+				throw new IllegalArgumentException("Could not add child " + child.getName() +
+						" of type " + child.getClass() + " to the parent " + getName() +
+						" of type " + getClass() + " more than once.");
+			}
+		}
+		
+		// The children are grouped by the List of children they are stored
+		// in, so that one event can be fired for each group.
+		List<List<BurdeeObject>> typeLists = new ArrayList<List<BurdeeObject>>();
+		List<List<BurdeeObject>> groups = new ArrayList<List<BurdeeObject>>();
+		for (BurdeeObject child : children) {
+			List<BurdeeObject> typeList = getChildStore().getList(child.getClass());
+			int group = indexOfIdentity(typeLists, typeList);
+			if (group < 0) {
+				group = typeLists.size();
+				typeLists.add(typeList);
+				groups.add(new ArrayList<BurdeeObject>());
+			}
+			groups.get(group).add(child);
+		}
+		
+		BurdeeRoot root = getRoot();
+		for (int group = 0; group < groups.size(); group++) {
+			List<BurdeeObject> groupChildren = groups.get(group);
+			int[] indices = new int[groupChildren.size()];
+			for (int i = 0; i < indices.length; i++) {
+				BurdeeObject child = groupChildren.get(i);
+				indices[i] = typeLists.get(group).size();
+				addChildImpl(child, indices[i]);
+				child.setParent(this);
+				if (root != null) {
+					root.register(child);
+				}
+			}
+			fireChildrenAdded(groupChildren, indices);
+		}
+	}
+	
+	@Override
+	public boolean removeChildren(List<? extends BurdeeObject> children) {
+		if (!allowsChildren()) {
+			throw new UnsupportedOperationException("Could not remove children " + 
+					"because the parent " + getName() + " of type " + getClass() + 
+					" does not allow children.");
+		}
+		Set<BurdeeObject> batch = 
+			Collections.newSetFromMap(new IdentityHashMap<BurdeeObject, Boolean>());
+		for (BurdeeObject child : children) {
+			if (child == null) {
+				throw new IllegalArgumentException("Cannot remove null children from parent " + 
+						getName() + " of type " + getClass() + ".");
+			} else if (!allowsChildType(child.getClass())) {
+				throw new IllegalArgumentException("Could not remove child " + child.getName() +
+						" of type " + child.getClass() + " because the parent " + getName() +
+						" of type " + getClass() + " does not allow this child type");
+			} else if (!batch.add(child)) {
+				throw new IllegalArgumentException("Could not remove child " + child.getName() +
+						" of type " + child.getClass() + " from the parent " + getName() +
+						" of type " + getClass() + " more than once.");
+			}
+		}
+		
+		// The indices of the children are grouped by the List of children
+		// they are stored in, and sorted, so that they can be removed from
+		// the back of each List and reported in a single event per List.
+		List<List<BurdeeObject>> typeLists = new ArrayList<List<BurdeeObject>>();
+		List<int[]> groupIndices = new ArrayList<int[]>();
+		List<Integer> groupSizes = new ArrayList<Integer>();
+		int removedCount = 0;
+		for (BurdeeObject child : children) {
+			List<BurdeeObject> typeList = getChildStore().getList(child.getClass());
+			int index = typeList.indexOf(child);
+			if (index < 0) {
+				continue;
+			}
+			int group = indexOfIdentity(typeLists, typeList);
+			if (group < 0) {
+				group = typeLists.size();
+				typeLists.add(typeList);
+				groupIndices.add(new int[children.size()]);
+				groupSizes.add(0);
+			}
+			int size = groupSizes.get(group);
+			groupIndices.get(group)[size] = index;
+			groupSizes.set(group, size + 1);
+			removedCount++;
+		}
+		
+		BurdeeRoot root = getRoot();
+		for (int group = 0; group < typeLists.size(); group++) {
+			List<BurdeeObject> typeList = typeLists.get(group);
+			int[] indices = Arrays.copyOf(groupIndices.get(group), groupSizes.get(group));
+			Arrays.sort(indices);
+			
+			List<BurdeeObject> groupChildren = new ArrayList<BurdeeObject>(indices.length);
+			for (int index : indices) {
+				groupChildren.add(typeList.get(index));
+			}
+			for (int i = indices.length - 1; i >= 0; i--) {
+				removeChildImpl(groupChildren.get(i));
+				if (root != null) {
+					root.unregister(groupChildren.get(i));
+				}
+			}
+			
+			fireChildrenRemoved(groupChildren, indices);
+			for (BurdeeObject child : groupChildren) {
+				child.setParent(null);
+			}
+		}
+		return removedCount == children.size();
+	}
+
+	@Override
+	public void moveChild(BurdeeObject child, BurdeeObject newParent, int index) {
+		if (child == null || newParent == null) {
+			throw new IllegalArgumentException("Cannot move a null child or move a child " +
+					"to a null parent.");
+		} else if (!allowsChildType(child.getClass()) || 
+				!getChildStore().getList(child.getClass()).contains(child)) {
+			throw new IllegalArgumentException("Could not move child " + child.getName() + 
+					" of type " + child.getClass() + " because the parent " + getName() + 
+					" of type " + getClass() + " does not contain this child.");
+		} else if (!newParent.allowsChildType(child.getClass())) {
+			throw new IllegalArgumentException("Could not move child " + child.getName() +
+					" of type " + child.getClass() + " because the new parent " + 
+					newParent.getName() + " of type " + newParent.getClass() + 
+					" does not allow this child type");
+		}
+		for (BurdeeObject ancestor = newParent; ancestor != null; ancestor = ancestor.getParent()) {
+			if (ancestor == child) {
+				throw new IllegalArgumentException("Could not move child " + child.getName() + 
+						" of type " + child.getClass() + " into itself or its descendant " + 
+						newParent.getName() + ".");
+			}
+		}
+		
+		// Another implementation of BurdeeObject has no way of firing a
+		// child moved event, so the child is removed and added again.
+		if (!(newParent instanceof AbstractBurdeeObject)) {
+			removeChild(child);
+			newParent.addChild(child, index);
+			return;
+		}
+		
+		AbstractBurdeeObject target = (AbstractBurdeeObject) newParent;
+		List<BurdeeObject> oldList = getChildStore().getList(child.getClass());
+		List<BurdeeObject> newList = target.getChildStore().getList(child.getClass());
+		int maxIndex = oldList == newList ? newList.size() - 1 : newList.size();
+		if (oldList != newList && newList.contains(child)) {
+			throw new IllegalArgumentException("Could not move child " + child.getName() +
+					" of type " + child.getClass() + " because the new parent " + 
+					newParent.getName() + " of type " + newParent.getClass() + 
+					" already contains this child.");
+		} else if (index < 0 || index > maxIndex) {
+			throw new IllegalArgumentException("Could not move child " + child.getName() + 
+					" to index " + index + " of the parent " + newParent.getName() + 
+					" of type " + newParent.getClass() + ".");
+		}
+		
+		int oldIndex = oldList.indexOf(child);
+		removeChildImpl(child);
+		target.addChildImpl(child, index);
+		if (target != this) {
+			child.setParent(target);
+			BurdeeRoot oldRoot = getRoot();
+			BurdeeRoot newRoot = target.getRoot();
+			if (oldRoot != newRoot) {
+				if (oldRoot != null) {
+					oldRoot.unregister(child);
+				}
+				if (newRoot != null) {
+					newRoot.register(child);
+				}
+			}
+		}
+		target.fireChildMoved(child, index, this, oldIndex);
+	}
+
+	/**
+	 * Finds a {@link List} within a {@link List} of {@link List}s by identity
+	 * rather than by equality.
+	 * 
+	 * @return The index of the {@link List}, or -1 if it is not there.
+	 */
+	private static int indexOfIdentity(List<List<BurdeeObject>> lists, List<BurdeeObject> list) {
+		for (int i = 0; i < lists.size(); i++) {
+			if (lists.get(i) == list) {
+				return i;
+			}
+		}
+		return -1;
+	}
 	
 	@Override
 	public String getName() {
@@ -161,11 +527,28 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	public void setName(String name) {
 		String oldName = this.name;
 		this.name = name;
-		firePropertyChanged("name", oldName, name);
+		firePropertyChanged(NAME, oldName, name);
+	}
+	
+	@Override
+	public long getId() {
+		return id;
 	}
 	
 	@Override
 	public String getUuid() {
+		// Racing threads may each build the String, but they build equal
+		// Strings, so it does not matter which one is kept.
+		String uuid = this.uuid;
+		if (uuid == null) {
+			String hex = Long.toHexString(id);
+			StringBuilder sb = new StringBuilder(16);
+			for (int i = hex.length(); i < 16; i++) {
+				sb.append('0');
+			}
+			uuid = sb.append(hex).toString();
+			this.uuid = uuid;
+		}
 		return uuid;
 	}
 	
@@ -178,26 +561,52 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	public void setParent(BurdeeObject parent) {
 		BurdeeObject oldParent = this.parent;
 		this.parent = parent;
-		firePropertyChanged("parent", oldParent, parent);
+		treePath = null;
+		firePropertyChanged(PARENT, oldParent, parent);
 	}
 	
 	@Override
-	public boolean allowsChildType(Class<? extends BurdeeObject> type) {
-		for (Class<? extends BurdeeObject> clazz : getAllowedChildTypes()) {
-			if (clazz.isAssignableFrom(type)) {
-				return true;
+	public TreePath getTreePath() {
+		BurdeeObject parent = getParent();
+		TreePath parentPath = parent == null ? null : parent.getTreePath();
+		TreePath path = treePath;
+		if (path == null || path.getParentPath() != parentPath) {
+			if (parentPath == null) {
+				path = new TreePath(this);
+			} else {
+				path = parentPath.pathByAddingChild(this);
 			}
+			treePath = path;
 		}
-		return false;
+		return path;
 	}
 	
 	@Override
-	public boolean allowsChildren() {
-		return !getAllowedChildTypes().isEmpty();
+	public boolean allowsChildType(Class<? extends BurdeeObject> type) {
+		return getChildStore().indexOfType(type) >= 0;
 	}
 	
 	@Override
+	public boolean allowsChildren() {
+		return getChildStore().types.length > 0;
+	}
+
+	/**
+	 * Gets the children of the given type. When the type is exactly one of
+	 * the allowed child types, the cached read-only view of that type's
+	 * storage is returned without allocating. Otherwise, the children are
+	 * filtered into a new {@link List}.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
 	public <T extends BurdeeObject> List<T> getChildren(Class<T> childType) {
+		ChildStore store = getChildStore();
+		for (int i = 0; i < store.types.length; i++) {
+			if (store.types[i] == childType) {
+				return (List<T>) store.views[i];
+			}
+		}
+		
 		List<T> children = new ArrayList<T>();
 		for (BurdeeObject child : getChildren()) {
 			if (childType.isAssignableFrom(child.getClass())) {
@@ -207,24 +616,162 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 		return Collections.unmodifiableList(children);
 	}
 	
+	/**
+	 * Gets the storage of child {@link BurdeeObject}s, creating it if this is
+	 * the first time it is needed.
+	 * 
+	 * @return The {@link ChildStore} of this {@link BurdeeObject}.
+	 */
+	private ChildStore getChildStore() {
+		ChildStore store = childStore;
+		if (store == null) {
+			synchronized(this) {
+				store = childStore;
+				if (store == null) {
+					store = new ChildStore(getAllowedChildTypes());
+					childStore = store;
+				}
+			}
+		}
+		return store;
+	}
+	
 	public void addBurdeeListener(BurdeeListener l) {
-		synchronized(listeners) {
-			// Ensures that a particular listener is not added twice.
-			listeners.remove(l);
+		addListener(LISTENERS, l, BurdeeEventFilter.ALL);
+	}
+	
+	public void addBurdeeListener(BurdeeListener l, BurdeeEventFilter filter) {
+		addListener(LISTENERS, l, filter);
+	}
+	
+	public void removeBurdeeListener(BurdeeListener l) {
+		removeListener(LISTENERS, l);
+	}
+	
+	public void addHierarchyListener(BurdeeListener l) {
+		addListener(HIERARCHY_LISTENERS, l, BurdeeEventFilter.ALL);
+	}
+	
+	public void addHierarchyListener(BurdeeListener l, BurdeeEventFilter filter) {
+		addListener(HIERARCHY_LISTENERS, l, filter);
+	}
+	
+	public void removeHierarchyListener(BurdeeListener l) {
+		removeListener(HIERARCHY_LISTENERS, l);
+	}
 
-			listeners.add(l);
+	@Override
+	public void addPropertyListener(BurdeeProperty<?> property, BurdeePropertyListener l) {
+		synchronized(lock) {
+			BurdeePropertyListener[][] oldTable = propertyListeners;
+			int id = property.getId();
+			BurdeePropertyListener[][] newTable = new BurdeePropertyListener[
+					Math.max(oldTable.length, id + 1)][];
+			System.arraycopy(oldTable, 0, newTable, 0, oldTable.length);
+			
+			BurdeePropertyListener[] oldRow = newTable[id];
+			if (oldRow == null) {
+				newTable[id] = new BurdeePropertyListener[] { l };
+			} else {
+				for (BurdeePropertyListener listener : oldRow) {
+					if (listener == l) {
+						return;
+					}
+				}
+				BurdeePropertyListener[] newRow = new BurdeePropertyListener[oldRow.length + 1];
+				System.arraycopy(oldRow, 0, newRow, 0, oldRow.length);
+				newRow[oldRow.length] = l;
+				newTable[id] = newRow;
+			}
+			propertyListeners = newTable;
 		}
 	}
 	
-	public void removeBurdeeListener(BurdeeListener l) {
-		synchronized(listeners) {
-			listeners.remove(l);
+	@Override
+	public void removePropertyListener(BurdeeProperty<?> property, BurdeePropertyListener l) {
+		synchronized(lock) {
+			BurdeePropertyListener[][] oldTable = propertyListeners;
+			int id = property.getId();
+			if (id >= oldTable.length || oldTable[id] == null) {
+				return;
+			}
+			
+			BurdeePropertyListener[] oldRow = oldTable[id];
+			int index = -1;
+			for (int i = 0; i < oldRow.length; i++) {
+				if (oldRow[i] == l) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0) {
+				return;
+			}
+			
+			BurdeePropertyListener[][] newTable = oldTable.clone();
+			if (oldRow.length == 1) {
+				newTable[id] = null;
+			} else {
+				BurdeePropertyListener[] newRow = new BurdeePropertyListener[oldRow.length - 1];
+				System.arraycopy(oldRow, 0, newRow, 0, index);
+				System.arraycopy(oldRow, index + 1, newRow, index, oldRow.length - index - 1);
+				newTable[id] = newRow;
+			}
+			propertyListeners = newTable;
+		}
+	}
+
+	/**
+	 * Adds a {@link BurdeeListener} to a listener snapshot by swapping in a new
+	 * copy of the {@link BurdeeListenerSet}. If the listener is already in the
+	 * set, it is moved to the end so that a particular listener is never added
+	 * twice.
+	 * 
+	 * @param updater
+	 *            The updater of the listener set to update.
+	 * @param l
+	 *            The {@link BurdeeListener} to add.
+	 * @param filter
+	 *            The {@link BurdeeEventFilter} of the events it accepts.
+	 */
+	private void addListener(AtomicReferenceFieldUpdater<AbstractBurdeeObject, BurdeeListenerSet> updater, 
+			BurdeeListener l, BurdeeEventFilter filter) {
+		if (l == null || filter == null) {
+			throw new IllegalArgumentException("Cannot add a null listener or filter.");
 		}
+		BurdeeListenerSet oldListeners;
+		do {
+			oldListeners = updater.get(this);
+		} while (!updater.compareAndSet(this, oldListeners, oldListeners.with(l, filter)));
+	}
+
+	/**
+	 * Removes a {@link BurdeeListener} from a listener snapshot by swapping in
+	 * a new copy of the {@link BurdeeListenerSet}. Nothing happens if the
+	 * listener is not in the set.
+	 * 
+	 * @param updater
+	 *            The updater of the listener set to update.
+	 * @param l
+	 *            The {@link BurdeeListener} to remove.
+	 */
+	private void removeListener(AtomicReferenceFieldUpdater<AbstractBurdeeObject, BurdeeListenerSet> updater, 
+			BurdeeListener l) {
+		BurdeeListenerSet oldListeners;
+		BurdeeListenerSet newListeners;
+		do {
+			oldListeners = updater.get(this);
+			newListeners = oldListeners.without(l);
+			if (newListeners == oldListeners) {
+				return;
+			}
+		} while (!updater.compareAndSet(this, oldListeners, newListeners));
 	}
 
 	/**
 	 * Fires a child added event to all of the {@link BurdeeListener}s that are
-	 * attached to this {@link BurdeeObject}.
+	 * attached to this {@link BurdeeObject}, followed by the hierarchy
+	 * {@link BurdeeListener}s of this object and each of its ancestors.
 	 * 
 	 * @param child
 	 *            The child {@link BurdeeObject} that was added to this parent
@@ -235,17 +782,37 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	 *            siblings that are the same type as the added child.
 	 */
 	protected void fireChildAdded(BurdeeObject child, int index) {
-		BurdeeChildEvent evt = new BurdeeChildEvent(this, child, index, EventType.ADDED);
-		synchronized(listeners) {
-			for (BurdeeListener listener : listeners) {
-				listener.childAdded(evt);
-			}
+		if (!isObserved()) {
+			return;
 		}
+		deliverChildEvent(new BurdeeChildEvent(this, child, index, EventType.ADDED));
+	}
+
+	/**
+	 * Fires a single child added event for a range of children of the same
+	 * type to all of the {@link BurdeeListener}s that are attached to this
+	 * {@link BurdeeObject}, followed by the hierarchy {@link BurdeeListener}s
+	 * of this object and each of its ancestors.
+	 * 
+	 * @param children
+	 *            The child {@link BurdeeObject}s that were added to this
+	 *            parent {@link BurdeeObject}.
+	 * @param indices
+	 *            The ascending indices of the added children in terms of the
+	 *            {@link List} returned by the {@link #getChildren(Class)}
+	 *            method for their type.
+	 */
+	protected void fireChildrenAdded(List<BurdeeObject> children, int[] indices) {
+		if (!isObserved()) {
+			return;
+		}
+		deliverChildEvent(new BurdeeChildEvent(this, children, indices, EventType.ADDED));
 	}
 
 	/**
 	 * Fires a child removed event to all of the {@link BurdeeListener}s that
-	 * are attached to this {@link BurdeeObject}.
+	 * are attached to this {@link BurdeeObject}, followed by the hierarchy
+	 * {@link BurdeeListener}s of this object and each of its ancestors.
 	 * 
 	 * @param child
 	 *            The child {@link BurdeeObject} that was removed from this
@@ -258,17 +825,125 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	 *            child.
 	 */
 	protected void fireChildRemoved(BurdeeObject child, int index) {
-		BurdeeChildEvent evt = new BurdeeChildEvent(this, child, index, EventType.REMOVED);
-		synchronized(listeners) {
-			for (BurdeeListener listener : listeners) {
-				listener.childRemoved(evt);
+		if (!isObserved()) {
+			return;
+		}
+		deliverChildEvent(new BurdeeChildEvent(this, child, index, EventType.REMOVED));
+	}
+
+	/**
+	 * Fires a single child removed event for a range of children of the same
+	 * type to all of the {@link BurdeeListener}s that are attached to this
+	 * {@link BurdeeObject}, followed by the hierarchy {@link BurdeeListener}s
+	 * of this object and each of its ancestors.
+	 * 
+	 * @param children
+	 *            The child {@link BurdeeObject}s that were removed from this
+	 *            parent {@link BurdeeObject}.
+	 * @param indices
+	 *            The ascending indices the removed children had, before any
+	 *            of them was removed, in terms of the {@link List} returned by
+	 *            the {@link #getChildren(Class)} method for their type.
+	 */
+	protected void fireChildrenRemoved(List<BurdeeObject> children, int[] indices) {
+		if (!isObserved()) {
+			return;
+		}
+		deliverChildEvent(new BurdeeChildEvent(this, children, indices, EventType.REMOVED));
+	}
+
+	/**
+	 * Fires a child moved event to all of the {@link BurdeeListener}s that are
+	 * attached to this new parent {@link BurdeeObject} and to the old parent,
+	 * followed by the hierarchy {@link BurdeeListener}s of this object and
+	 * each of its ancestors, and then those of the old parent and each of its
+	 * ancestors that is not also an ancestor of this object. If a transaction
+	 * is open on this object, the event is held back until it is committed.
+	 * 
+	 * @param child
+	 *            The child {@link BurdeeObject} that was moved to this parent
+	 *            {@link BurdeeObject}.
+	 * @param index
+	 *            The index of the moved child in terms of the {@link List}
+	 *            returned by the {@link #getChildren(Class)} method for
+	 *            siblings that are the same type as the moved child.
+	 * @param oldParent
+	 *            The parent {@link BurdeeObject} the child was moved from. This
+	 *            may be this object if the child was only moved to another
+	 *            index.
+	 * @param oldIndex
+	 *            The index the child had in the old parent before the move.
+	 */
+	protected void fireChildMoved(BurdeeObject child, int index, BurdeeObject oldParent, 
+			int oldIndex) {
+		AbstractBurdeeObject source = oldParent instanceof AbstractBurdeeObject && oldParent != this 
+				? (AbstractBurdeeObject) oldParent : null;
+		if (!isObserved() && (source == null || !source.isObserved())) {
+			return;
+		}
+		BurdeeChildEvent evt = new BurdeeChildEvent(this, child, index, oldParent, oldIndex);
+		if (holdBack(evt)) {
+			return;
+		}
+		
+		listeners.fireChildMoved(evt);
+		if (source != null) {
+			source.listeners.fireChildMoved(evt);
+		}
+		for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+			getHierarchyListeners(ancestor).fireChildMoved(evt);
+		}
+		for (BurdeeObject ancestor = source; ancestor != null; ancestor = ancestor.getParent()) {
+			if (isAncestorOrSelf(ancestor)) {
+				break;
+			}
+			getHierarchyListeners(ancestor).fireChildMoved(evt);
+		}
+	}
+
+	/**
+	 * Checks whether a {@link BurdeeObject} is this object or one of its
+	 * ancestors.
+	 */
+	private boolean isAncestorOrSelf(BurdeeObject bo) {
+		for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+			if (ancestor == bo) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Delivers a {@link BurdeeChildEvent} to the {@link BurdeeListener}s
+	 * attached to this object and the hierarchy {@link BurdeeListener}s of
+	 * this object and each of its ancestors, unless a transaction is open and
+	 * it is held back.
+	 * 
+	 * @param evt
+	 *            The {@link BurdeeChildEvent} to deliver.
+	 */
+	private void deliverChildEvent(BurdeeChildEvent evt) {
+		if (holdBack(evt)) {
+			return;
+		}
+		if (evt.getType() == EventType.ADDED) {
+			listeners.fireChildAdded(evt);
+			for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+				getHierarchyListeners(ancestor).fireChildAdded(evt);
+			}
+		} else {
+			listeners.fireChildRemoved(evt);
+			for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+				getHierarchyListeners(ancestor).fireChildRemoved(evt);
 			}
 		}
 	}
 
 	/**
 	 * Fires a property change event to all of the {@link BurdeeListener}s that
-	 * are attached to this {@link BurdeeObject}.
+	 * are attached to this {@link BurdeeObject}, followed by the hierarchy
+	 * {@link BurdeeListener}s of this object and each of its ancestors.
 	 * 
 	 * @param propertyName
 	 *            The property name of the property that was changed.
@@ -277,15 +952,347 @@ public abstract class AbstractBurdeeObject implements BurdeeObject {
 	 * @param newValue
 	 *            The new value of the property. This value can be null.
 	 */
+	@SuppressWarnings("unchecked")
 	protected void firePropertyChanged(String propertyName, Object oldValue, Object newValue) {
+		firePropertyChanged((BurdeeProperty<Object>) BurdeeProperty.forName(getClass(), propertyName), 
+				oldValue, newValue);
+	}
+
+	/**
+	 * Fires a property change event for a {@link BurdeeProperty}. The
+	 * {@link BurdeePropertyListener}s registered for that property are
+	 * notified first, directly and without creating an event object. Then a
+	 * {@link BurdeePropertyChangeEvent} is fired to all of the
+	 * {@link BurdeeListener}s that are attached to this {@link BurdeeObject},
+	 * followed by the hierarchy {@link BurdeeListener}s of this object and
+	 * each of its ancestors.
+	 * 
+	 * @param <T>
+	 *            The type of the property value.
+	 * @param property
+	 *            The {@link BurdeeProperty} that was changed.
+	 * @param oldValue
+	 *            The old value of the property. This value can be null.
+	 * @param newValue
+	 *            The new value of the property. This value can be null.
+	 */
+	protected <T> void firePropertyChanged(BurdeeProperty<T> property, T oldValue, T newValue) {
 		if (!BurdeeUtils.isNullSafeEquals(oldValue, newValue)) {
-			PropertyChangeEvent evt = new PropertyChangeEvent(this, propertyName, oldValue, newValue);
-			synchronized(listeners) {
-				for (BurdeeListener listener : listeners) {
-					listener.propertyChange(evt);
+			BurdeeObject parent = this.parent;
+			if (parent instanceof AbstractBurdeeObject) {
+				((AbstractBurdeeObject) parent).childPropertyChanged(this, property, oldValue, newValue);
+			}
+			
+			if (transactionDepth > 0) {
+				PropertyChangeEvent evt = 
+					new BurdeePropertyChangeEvent(this, property, oldValue, newValue);
+				if (holdBack(evt)) {
+					return;
 				}
 			}
+			
+			notifyPropertyListeners(property, oldValue, newValue);
+			if (!isObserved(property.getName())) {
+				return;
+			}
+			
+			PropertyChangeEvent evt = new BurdeePropertyChangeEvent(this, property, oldValue, newValue);
+			listeners.firePropertyChange(evt);
+			for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+				getHierarchyListeners(ancestor).firePropertyChange(evt);
+			}
 		}
 	}
+
+	/**
+	 * Called on a parent whenever a property of one of its children has
+	 * changed. Unlike listeners, this is called immediately even if a
+	 * transaction is open, and costs nothing per child, which makes it the
+	 * place for a parent to keep indexes of its children up to date. By
+	 * default, nothing happens.
+	 * 
+	 * @param child
+	 *            The child {@link BurdeeObject} whose property changed.
+	 * @param property
+	 *            The {@link BurdeeProperty} that was changed.
+	 * @param oldValue
+	 *            The old value of the property.
+	 * @param newValue
+	 *            The new value of the property.
+	 */
+	protected void childPropertyChanged(BurdeeObject child, BurdeeProperty<?> property, 
+			Object oldValue, Object newValue) {
+		// Stub method.
+		// Extending classes should override this method as needed.
+	}
+
+	/**
+	 * Notifies the {@link BurdeePropertyListener}s registered for a
+	 * {@link BurdeeProperty} that it has changed.
+	 * 
+	 * @param property
+	 *            The {@link BurdeeProperty} that was changed.
+	 * @param oldValue
+	 *            The old value of the property.
+	 * @param newValue
+	 *            The new value of the property.
+	 */
+	private void notifyPropertyListeners(BurdeeProperty<?> property, Object oldValue, Object newValue) {
+		BurdeePropertyListener[][] table = propertyListeners;
+		int id = property.getId();
+		if (id < table.length && table[id] != null) {
+			for (BurdeePropertyListener listener : table[id]) {
+				long start = metrics.start(listener);
+				listener.propertyChanged(this, property, oldValue, newValue);
+				metrics.stop(listener, start);
+			}
+		}
+	}
+
+	/**
+	 * Fires a transaction committed event to all of the
+	 * {@link BurdeeListener}s that are attached to this {@link BurdeeObject},
+	 * followed by the hierarchy {@link BurdeeListener}s of this object and
+	 * each of its ancestors.
+	 * 
+	 * @param events
+	 *            The events that were held back during the transaction.
+	 */
+	protected void fireTransactionCommitted(List<EventObject> events) {
+		BurdeeTransactionEvent evt = new BurdeeTransactionEvent(this, events);
+		listeners.fireTransactionCommitted(evt);
+		for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+			getHierarchyListeners(ancestor).fireTransactionCommitted(evt);
+		}
+	}
+	
+	@Override
+	public void begin() {
+		synchronized(lock) {
+			transactionDepth++;
+		}
+	}
+	
+	@Override
+	public void commit() {
+		List<EventObject> events;
+		synchronized(lock) {
+			if (transactionDepth == 0) {
+				throw new IllegalStateException("Cannot commit a transaction on " + 
+						getName() + " of type " + getClass() + 
+						" because no transaction was begun.");
+			}
+			transactionDepth--;
+			if (transactionDepth > 0 || pendingEvents == null) {
+				return;
+			}
+			events = pendingEvents;
+			pendingEvents = null;
+		}
+		fireTransactionCommitted(events);
+		
+		// BurdeePropertyListeners do not receive the compound event, so the
+		// property changes held back during the transaction are delivered to
+		// them individually.
+		for (EventObject evt : events) {
+			if (evt instanceof BurdeePropertyChangeEvent) {
+				BurdeePropertyChangeEvent propertyEvt = (BurdeePropertyChangeEvent) evt;
+				notifyPropertyListeners(propertyEvt.getProperty(), 
+						propertyEvt.getOldValue(), propertyEvt.getNewValue());
+			}
+		}
+	}
+
+	/**
+	 * Holds back an event if a transaction is open on this
+	 * {@link BurdeeObject}, so that it can be delivered when the transaction
+	 * is committed.
+	 * 
+	 * @param evt
+	 *            The event that is about to be fired.
+	 * @return true if the event was held back and must not be delivered now.
+	 */
+	private boolean holdBack(EventObject evt) {
+		if (transactionDepth == 0) {
+			return false;
+		}
+		synchronized(lock) {
+			if (transactionDepth == 0) {
+				return false;
+			}
+			if (pendingEvents == null) {
+				pendingEvents = new ArrayList<EventObject>();
+			}
+			pendingEvents.add(evt);
+			return true;
+		}
+	}
+
+	/**
+	 * Gets the {@link BurdeeRoot} at the top of the hierarchy this
+	 * {@link BurdeeObject} belongs to.
+	 * 
+	 * @return The {@link BurdeeRoot} ancestor, which may be this object
+	 *         itself, or null if this object is not attached below a
+	 *         {@link BurdeeRoot}.
+	 */
+	private BurdeeRoot getRoot() {
+		BurdeeObject top = this;
+		while (top.getParent() != null) {
+			top = top.getParent();
+		}
+		if (top instanceof BurdeeRoot) {
+			return (BurdeeRoot) top;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether an event fired by this {@link BurdeeObject} right now
+	 * would reach anybody, so that the fire methods can avoid creating event
+	 * objects that nobody receives. An event is observed if a transaction is
+	 * open on this object, if a {@link BurdeeListener} is attached to it, or
+	 * if a hierarchy {@link BurdeeListener} is attached to it or to one of its
+	 * ancestors. The check only reads the listener snapshots and does not
+	 * allocate.
+	 * 
+	 * @return true if an event fired by this object would be delivered or held
+	 *         back.
+	 */
+	private boolean isObserved() {
+		if (transactionDepth > 0 || !listeners.isEmpty()) {
+			return true;
+		}
+		for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+			if (!getHierarchyListeners(ancestor).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether a property change event fired by this
+	 * {@link BurdeeObject} right now would reach anybody. Unlike
+	 * {@link #isObserved()}, listeners whose {@link BurdeeEventFilter} rejects
+	 * the property do not count, so that a filtered hierarchy listener on an
+	 * ancestor does not make every property change of its descendants create
+	 * an event object.
+	 * 
+	 * @param propertyName
+	 *            The name of the property that was changed.
+	 * @return true if a property change event for the property would be
+	 *         delivered or held back.
+	 */
+	private boolean isObserved(String propertyName) {
+		if (transactionDepth > 0 || listeners.acceptsProperty(propertyName)) {
+			return true;
+		}
+		for (BurdeeObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+			if (getHierarchyListeners(ancestor).acceptsProperty(propertyName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the current snapshot of hierarchy {@link BurdeeListener}s attached
+	 * to a {@link BurdeeObject}.
+	 * 
+	 * @param bo
+	 *            The {@link BurdeeObject} to get the hierarchy listeners of.
+	 * @return The {@link BurdeeListenerSet} of hierarchy
+	 *         {@link BurdeeListener}s.
+	 */
+	private static BurdeeListenerSet getHierarchyListeners(BurdeeObject bo) {
+		if (bo instanceof AbstractBurdeeObject) {
+			return ((AbstractBurdeeObject) bo).hierarchyListeners;
+		}
+		return BurdeeListenerSet.EMPTY;
+	}
+	
+	/**
+	 * The storage of child {@link BurdeeObject}s. Children are kept in one
+	 * {@link IdentityIndexedList} per allowed child type, in the same order as
+	 * {@link BurdeeObject#getAllowedChildTypes()}, along with a cached
+	 * read-only view of each {@link List}. The identity index makes the
+	 * duplicate check in {@link AbstractBurdeeObject#addChild(BurdeeObject)}
+	 * and the index lookup in
+	 * {@link AbstractBurdeeObject#removeChild(BurdeeObject)} constant time.
+	 */
+	private static final class ChildStore {
+
+		/**
+		 * The allowed child types.
+		 */
+		private final Class<?>[] types;
+
+		/**
+		 * The {@link List} of children for each allowed child type.
+		 */
+		private final List<?>[] lists;
+
+		/**
+		 * The unmodifiable view of each {@link List} in {@link #lists}.
+		 */
+		private final List<?>[] views;
+
+		/**
+		 * Creates a new {@link ChildStore}.
+		 * 
+		 * @param allowedChildTypes
+		 *            The allowed child types of the owning
+		 *            {@link BurdeeObject}.
+		 */
+		private ChildStore(List<Class<? extends BurdeeObject>> allowedChildTypes) {
+			types = allowedChildTypes.toArray(new Class<?>[allowedChildTypes.size()]);
+			lists = new List<?>[types.length];
+			views = new List<?>[types.length];
+			for (int i = 0; i < types.length; i++) {
+				List<BurdeeObject> list = new IdentityIndexedList<BurdeeObject>();
+				lists[i] = list;
+				views[i] = Collections.unmodifiableList(list);
+			}
+		}
+
+		/**
+		 * Finds the allowed child type that a given {@link BurdeeObject} type
+		 * is stored under.
+		 * 
+		 * @param type
+		 *            The {@link Class} of the child.
+		 * @return The index of the allowed child type, or -1 if the type is
+		 *         not allowed.
+		 */
+		private int indexOfType(Class<?> type) {
+			for (int i = 0; i < types.length; i++) {
+				if (types[i].isAssignableFrom(type)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Gets the {@link List} that children of the given type are stored in.
+		 * 
+		 * @param type
+		 *            The {@link Class} of the child.
+		 * @return The modifiable {@link List} of children.
+		 * @throws IllegalArgumentException
+		 *             Thrown if the type is not an allowed child type.
+		 */
+		@SuppressWarnings("unchecked")
+		private List<BurdeeObject> getList(Class<?> type) {
+			int index = indexOfType(type);
+			if (index < 0) {
+				throw new IllegalArgumentException("Children of type " + type + 
+						" are not allowed.");
+			}
+			return (List<BurdeeObject>) lists[index];
+		}
+
+	}
 	
 }
@@ -0,0 +1,82 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+import java.util.EventObject;
+
+/**
+ * A single change recorded in a {@link BurdeeChangeJournal}. It pairs the
+ * event that was fired for the change with the sequence number the journal
+ * assigned to it.
+ */
+public class BurdeeChange {
+
+	/**
+	 * @see #getSequence()
+	 */
+	private final long sequence;
+
+	/**
+	 * @see #getEvent()
+	 */
+	private final EventObject event;
+
+	/**
+	 * Creates a new {@link BurdeeChange}.
+	 * 
+	 * @param sequence
+	 *            The sequence number of the change.
+	 * @param event
+	 *            The {@link BurdeeChildEvent} or {@link PropertyChangeEvent}
+	 *            that was fired for the change.
+	 */
+	public BurdeeChange(long sequence, EventObject event) {
+		this.sequence = sequence;
+		this.event = event;
+	}
+
+	/**
+	 * Gets the sequence number of this change. Sequence numbers start at 1
+	 * and increase by one for every change recorded in the same
+	 * {@link BurdeeChangeJournal}.
+	 * 
+	 * @return The sequence number.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Gets the event that was fired for this change.
+	 * 
+	 * @return The {@link BurdeeChildEvent} or {@link PropertyChangeEvent} of
+	 *         this change.
+	 */
+	public EventObject getEvent() {
+		return event;
+	}
+	
+	@Override
+	public String toString() {
+		return sequence + ": " + event;
+	}
+
+}
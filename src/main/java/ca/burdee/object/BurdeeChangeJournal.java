@@ -0,0 +1,124 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * A bounded journal of the most recent changes made to a hierarchy of
+ * {@link BurdeeObject}s. Each recorded change is given the next sequence
+ * number, starting at 1. Only the latest changes are kept, in a ring buffer
+ * whose capacity is fixed when the journal is created, so a consumer that
+ * remembers the last sequence number it has seen can catch up on what it
+ * missed as long as it has not fallen too far behind.
+ * 
+ * @see BurdeeRoot#catchUp(long, BurdeeListener)
+ */
+public class BurdeeChangeJournal {
+
+	/**
+	 * The ring buffer of recorded changes. The change with sequence number n
+	 * is stored at index (n - 1) modulo the capacity.
+	 */
+	private final BurdeeChange[] changes;
+
+	/**
+	 * The sequence number of the last recorded change, or 0 if nothing has
+	 * been recorded yet.
+	 */
+	private long lastSequence;
+
+	/**
+	 * Creates a new {@link BurdeeChangeJournal}.
+	 * 
+	 * @param capacity
+	 *            The maximum number of changes to keep.
+	 */
+	public BurdeeChangeJournal(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity of a journal must be positive.");
+		}
+		changes = new BurdeeChange[capacity];
+	}
+
+	/**
+	 * Records a change, dropping the oldest one if the journal is full.
+	 * 
+	 * @param event
+	 *            The {@link BurdeeChildEvent} or {@link PropertyChangeEvent}
+	 *            that was fired for the change.
+	 * @return The sequence number given to the change.
+	 */
+	public synchronized long record(EventObject event) {
+		lastSequence++;
+		changes[(int) ((lastSequence - 1) % changes.length)] = new BurdeeChange(lastSequence, event);
+		return lastSequence;
+	}
+
+	/**
+	 * Gets the sequence number of the last recorded change.
+	 * 
+	 * @return The sequence number of the last recorded change, or 0 if
+	 *         nothing has been recorded yet.
+	 */
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Gets the sequence number of the oldest change that is still kept.
+	 * 
+	 * @return The sequence number of the oldest change still in the journal.
+	 *         If the journal is empty, this is one more than
+	 *         {@link #getLastSequence()}.
+	 */
+	public synchronized long getFirstSequence() {
+		return Math.max(1, lastSequence - changes.length + 1);
+	}
+
+	/**
+	 * Gets all of the changes recorded after a given sequence number.
+	 * 
+	 * @param sequence
+	 *            The sequence number of the last change the caller has seen,
+	 *            or 0 if it has seen none.
+	 * @return The {@link List} of changes after the given sequence number,
+	 *         oldest first, or null if some of those changes have already
+	 *         been dropped from the journal.
+	 */
+	public synchronized List<BurdeeChange> getChangesSince(long sequence) {
+		if (sequence < 0 || sequence > lastSequence) {
+			throw new IllegalArgumentException("Sequence number " + sequence + 
+					" has not been recorded in this journal.");
+		} else if (sequence + 1 < getFirstSequence()) {
+			return null;
+		}
+		
+		List<BurdeeChange> since = new ArrayList<BurdeeChange>((int) (lastSequence - sequence));
+		for (long i = sequence + 1; i <= lastSequence; i++) {
+			since.add(changes[(int) ((i - 1) % changes.length)]);
+		}
+		return since;
+	}
+
+}
@@ -18,6 +18,7 @@
 
 package ca.burdee.object;
 
+import java.util.Collections;
 import java.util.EventObject;
 import java.util.List;
 
@@ -25,7 +26,10 @@ import java.util.List;
  * This {@link EventObject} represents either a child added or child removed
  * event on {@link BurdeeObject}, which should occur after a call to
  * {@link BurdeeObject#addChild(BurdeeObject)} or
- * {@link BurdeeObject#removeChild(BurdeeObject)}.
+ * {@link BurdeeObject#removeChild(BurdeeObject)}. A single event can also
+ * cover a range of children of the same type, after a call to
+ * {@link BurdeeObject#addChildren(List)} or
+ * {@link BurdeeObject#removeChildren(List)}.
  */
 public class BurdeeChildEvent extends EventObject {
 
@@ -34,23 +38,34 @@ public class BurdeeChildEvent extends EventObject {
 	 */
 	public enum EventType {
 		ADDED,
-		REMOVED
+		REMOVED,
+		MOVED
 	}
 	
 	/**
-	 * @see #getChild()
+	 * @see #getChildren()
 	 */
-	private final BurdeeObject child;
+	private final List<BurdeeObject> children;
 	
 	/**
-	 * @see #getIndex()
+	 * @see #getIndices()
 	 */
-	private final int index;
+	private final int[] indices;
 	
 	/**
 	 * {@link #getType()}
 	 */
 	private final EventType type;
+	
+	/**
+	 * @see #getOldParent()
+	 */
+	private final BurdeeObject oldParent;
+	
+	/**
+	 * @see #getOldIndex()
+	 */
+	private final int oldIndex;
 
 	/**
 	 * Creates a new {@link BurdeeChildEvent}.
@@ -68,10 +83,73 @@ public class BurdeeChildEvent extends EventObject {
 	 *            The event type; either a child added or child removed event.
 	 */
 	public BurdeeChildEvent(BurdeeObject source, BurdeeObject child, int index, EventType type) {
+		this(source, Collections.singletonList(child), new int[] { index }, type);
+	}
+
+	/**
+	 * Creates a new {@link BurdeeChildEvent} for a range of children.
+	 * 
+	 * @param source
+	 *            The parent {@link BurdeeObject} which the children have been
+	 *            added to or removed from.
+	 * @param children
+	 *            The child {@link BurdeeObject}s that have been added or
+	 *            removed, all of the same type.
+	 * @param indices
+	 *            The index of each child, in ascending order, in terms of the
+	 *            {@link List} returned by {@link BurdeeObject#getChildren(Class)}
+	 *            for its type. For added children, these are the indices after
+	 *            all of them were added. For removed children, these are the
+	 *            indices before any of them were removed.
+	 * @param type
+	 *            The event type; either a child added or child removed event.
+	 */
+	public BurdeeChildEvent(BurdeeObject source, List<BurdeeObject> children, int[] indices, 
+			EventType type) {
+		this(source, children, indices, type, null, -1);
+		if (type == EventType.MOVED) {
+			throw new IllegalArgumentException("A child moved event needs the old parent " +
+					"and index of the child.");
+		}
+	}
+
+	/**
+	 * Creates a new child moved {@link BurdeeChildEvent}.
+	 * 
+	 * @param source
+	 *            The parent {@link BurdeeObject} which the child has been
+	 *            moved to. This may be the same as the old parent if the child
+	 *            was only moved to another index.
+	 * @param child
+	 *            The child {@link BurdeeObject} that has been moved.
+	 * @param index
+	 *            The index of the child in the new parent, in terms of the
+	 *            {@link List} returned by {@link BurdeeObject#getChildren(Class)}
+	 *            for its type, after the move.
+	 * @param oldParent
+	 *            The parent {@link BurdeeObject} which the child has been
+	 *            moved from.
+	 * @param oldIndex
+	 *            The index of the child in the old parent before the move.
+	 */
+	public BurdeeChildEvent(BurdeeObject source, BurdeeObject child, int index, 
+			BurdeeObject oldParent, int oldIndex) {
+		this(source, Collections.singletonList(child), new int[] { index }, EventType.MOVED, 
+				oldParent, oldIndex);
+	}
+
+	private BurdeeChildEvent(BurdeeObject source, List<BurdeeObject> children, int[] indices, 
+			EventType type, BurdeeObject oldParent, int oldIndex) {
 		super(source);
-		this.child = child;
-		this.index = index;
+		if (children.isEmpty() || children.size() != indices.length) {
+			throw new IllegalArgumentException("A child event needs one index for each of " +
+					"at least one child.");
+		}
+		this.children = Collections.unmodifiableList(children);
+		this.indices = indices;
 		this.type = type;
+		this.oldParent = oldParent;
+		this.oldIndex = oldIndex;
 	}
 	
 	@Override
@@ -80,25 +158,66 @@ public class BurdeeChildEvent extends EventObject {
 	}
 
 	/**
-	 * Gets the parent {@link BurdeeObject}.
+	 * Gets the child {@link BurdeeObject}. If this event covers a range of
+	 * children, this is the first of them.
 	 * 
-	 * @return The parent {@link BurdeeObject}.
+	 * @return The child {@link BurdeeObject}.
 	 */
 	public BurdeeObject getChild() {
-		return child;
+		return children.get(0);
 	}
 
 	/**
-	 * Gets the child {@link BurdeeObject}.
+	 * Gets the index of the child {@link BurdeeObject}. If this event covers a
+	 * range of children, this is the index of the first of them.
 	 * 
-	 * @return The child {@link BurdeeObject}.
+	 * @return The index of the child.
 	 */
 	public int getIndex() {
-		return index;
+		return indices[0];
+	}
+
+	/**
+	 * Gets all of the child {@link BurdeeObject}s this event covers.
+	 * 
+	 * @return The unmodifiable {@link List} of children, in the same order as
+	 *         {@link #getIndices()}.
+	 */
+	public List<BurdeeObject> getChildren() {
+		return children;
+	}
+
+	/**
+	 * Gets the indices of all of the child {@link BurdeeObject}s this event
+	 * covers.
+	 * 
+	 * @return A copy of the ascending indices of the children.
+	 * @see #BurdeeChildEvent(BurdeeObject, List, int[], EventType)
+	 */
+	public int[] getIndices() {
+		return indices.clone();
+	}
+	
+	/**
+	 * Gets the parent {@link BurdeeObject} the child was moved from.
+	 * 
+	 * @return The old parent, or null if this is not a child moved event.
+	 */
+	public BurdeeObject getOldParent() {
+		return oldParent;
+	}
+
+	/**
+	 * Gets the index the child had in its old parent before it was moved.
+	 * 
+	 * @return The old index, or -1 if this is not a child moved event.
+	 */
+	public int getOldIndex() {
+		return oldIndex;
 	}
 	
 	/**
-	 * Gets the event type; either child added or removed.
+	 * Gets the event type; either child added, removed or moved.
 	 * 
 	 * @return The event type.
 	 */
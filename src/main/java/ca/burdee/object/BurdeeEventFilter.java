@@ -0,0 +1,237 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.HashSet;
+import java.util.Set;
+
+import ca.burdee.object.BurdeeChildEvent.EventType;
+
+/**
+ * A {@link BurdeeEventFilter} declares which events a {@link BurdeeListener}
+ * is interested in when it is registered, so that it is never called for the
+ * others. Child added and child removed events are selected by the type of
+ * the child, and property change events by the property name. Filters are
+ * immutable and are combined with {@link #or(BurdeeEventFilter)}.
+ * 
+ * @see BurdeeObject#addBurdeeListener(BurdeeListener, BurdeeEventFilter)
+ * @see BurdeeObject#addHierarchyListener(BurdeeListener, BurdeeEventFilter)
+ */
+public final class BurdeeEventFilter {
+
+	/**
+	 * The {@link BurdeeEventFilter} that accepts every event.
+	 */
+	public static final BurdeeEventFilter ALL = new BurdeeEventFilter(
+			true, Collections.<Class<?>>emptySet(), 
+			true, Collections.<Class<?>>emptySet(), 
+			true, Collections.<String>emptySet());
+
+	/**
+	 * The {@link BurdeeEventFilter} that accepts every property change event
+	 * and no child events.
+	 */
+	public static final BurdeeEventFilter PROPERTY_CHANGES = new BurdeeEventFilter(
+			false, Collections.<Class<?>>emptySet(), 
+			false, Collections.<Class<?>>emptySet(), 
+			true, Collections.<String>emptySet());
+
+	/**
+	 * Creates a {@link BurdeeEventFilter} that accepts child added and child
+	 * removed events for children of the given type or its subtypes.
+	 * 
+	 * @param childType
+	 *            The type of child to accept events for.
+	 */
+	public static BurdeeEventFilter childEvents(Class<? extends BurdeeObject> childType) {
+		Set<Class<?>> types = Collections.<Class<?>>singleton(childType);
+		return new BurdeeEventFilter(
+				false, types, false, types, false, Collections.<String>emptySet());
+	}
+
+	/**
+	 * Creates a {@link BurdeeEventFilter} that accepts child added events for
+	 * children of the given type or its subtypes.
+	 * 
+	 * @param childType
+	 *            The type of child to accept events for.
+	 */
+	public static BurdeeEventFilter childAdded(Class<? extends BurdeeObject> childType) {
+		return new BurdeeEventFilter(
+				false, Collections.<Class<?>>singleton(childType), 
+				false, Collections.<Class<?>>emptySet(), 
+				false, Collections.<String>emptySet());
+	}
+
+	/**
+	 * Creates a {@link BurdeeEventFilter} that accepts property change events
+	 * for the given property.
+	 * 
+	 * @param property
+	 *            The {@link BurdeeProperty} to accept events for.
+	 */
+	public static BurdeeEventFilter propertyChanges(BurdeeProperty<?> property) {
+		return new BurdeeEventFilter(
+				false, Collections.<Class<?>>emptySet(), 
+				false, Collections.<Class<?>>emptySet(), 
+				false, Collections.singleton(property.getName()));
+	}
+
+	/**
+	 * Whether every child added event is accepted.
+	 */
+	private final boolean allChildrenAdded;
+
+	/**
+	 * The child types whose child added events are accepted.
+	 */
+	private final Set<Class<?>> childAddedTypes;
+
+	/**
+	 * Whether every child removed event is accepted.
+	 */
+	private final boolean allChildrenRemoved;
+
+	/**
+	 * The child types whose child removed events are accepted.
+	 */
+	private final Set<Class<?>> childRemovedTypes;
+
+	/**
+	 * Whether every property change event is accepted.
+	 */
+	private final boolean allProperties;
+
+	/**
+	 * The names of the properties whose property change events are accepted.
+	 */
+	private final Set<String> propertyNames;
+
+	private BurdeeEventFilter(boolean allChildrenAdded, Set<Class<?>> childAddedTypes, 
+			boolean allChildrenRemoved, Set<Class<?>> childRemovedTypes, 
+			boolean allProperties, Set<String> propertyNames) {
+		this.allChildrenAdded = allChildrenAdded;
+		this.childAddedTypes = childAddedTypes;
+		this.allChildrenRemoved = allChildrenRemoved;
+		this.childRemovedTypes = childRemovedTypes;
+		this.allProperties = allProperties;
+		this.propertyNames = propertyNames;
+	}
+
+	/**
+	 * Creates a {@link BurdeeEventFilter} that accepts the events accepted by
+	 * this filter as well as those accepted by another.
+	 * 
+	 * @param other
+	 *            The other {@link BurdeeEventFilter}.
+	 * @return The combined {@link BurdeeEventFilter}.
+	 */
+	public BurdeeEventFilter or(BurdeeEventFilter other) {
+		return new BurdeeEventFilter(
+				allChildrenAdded || other.allChildrenAdded, 
+				union(childAddedTypes, other.childAddedTypes), 
+				allChildrenRemoved || other.allChildrenRemoved, 
+				union(childRemovedTypes, other.childRemovedTypes), 
+				allProperties || other.allProperties, 
+				union(propertyNames, other.propertyNames));
+	}
+
+	/**
+	 * Checks whether this filter accepts child events of a given type for a
+	 * child of a given class. A child moved event is accepted if either child
+	 * added or child removed events are accepted, since a move is both.
+	 * 
+	 * @param type
+	 *            Whether the child was added, removed or moved.
+	 * @param childClass
+	 *            The {@link Class} of the child.
+	 * @return true if the event is accepted.
+	 */
+	public boolean acceptsChild(EventType type, Class<?> childClass) {
+		if (type == EventType.ADDED) {
+			return allChildrenAdded || isAssignable(childAddedTypes, childClass);
+		} else if (type == EventType.REMOVED) {
+			return allChildrenRemoved || isAssignable(childRemovedTypes, childClass);
+		} else {
+			return acceptsChild(EventType.ADDED, childClass) 
+					|| acceptsChild(EventType.REMOVED, childClass);
+		}
+	}
+
+	/**
+	 * Checks whether this filter accepts property change events for a
+	 * property.
+	 * 
+	 * @param propertyName
+	 *            The name of the property.
+	 * @return true if the event is accepted.
+	 */
+	public boolean acceptsProperty(String propertyName) {
+		return allProperties || propertyNames.contains(propertyName);
+	}
+
+	/**
+	 * Checks whether this filter accepts an event.
+	 * 
+	 * @param evt
+	 *            A {@link BurdeeChildEvent} or {@link PropertyChangeEvent}.
+	 * @return true if the event is accepted.
+	 */
+	public boolean accepts(EventObject evt) {
+		if (evt instanceof BurdeeChildEvent) {
+			BurdeeChildEvent childEvt = (BurdeeChildEvent) evt;
+			return acceptsChild(childEvt.getType(), childEvt.getChild().getClass());
+		} else if (evt instanceof PropertyChangeEvent) {
+			return acceptsProperty(((PropertyChangeEvent) evt).getPropertyName());
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether a {@link Class} is one of a {@link Set} of types or a
+	 * subtype of one of them.
+	 */
+	private static boolean isAssignable(Set<Class<?>> types, Class<?> clazz) {
+		for (Class<?> type : types) {
+			if (type.isAssignableFrom(clazz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the unmodifiable union of two {@link Set}s.
+	 */
+	private static <T> Set<T> union(Set<T> a, Set<T> b) {
+		if (b.isEmpty()) {
+			return a;
+		} else if (a.isEmpty()) {
+			return b;
+		}
+		Set<T> union = new HashSet<T>(a);
+		union.addAll(b);
+		return Collections.unmodifiableSet(union);
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object;
+
+/**
+ * A {@link BurdeeIdGenerator} hands out the identifiers of new
+ * {@link BurdeeObject}s. The identifiers it returns must be unique for the
+ * lifetime of the application. Implementations must be thread safe, since
+ * {@link BurdeeObject}s are created by network threads as well as the event
+ * dispatching thread.
+ * 
+ * @see AbstractBurdeeObject#setIdGenerator(BurdeeIdGenerator)
+ */
+public interface BurdeeIdGenerator {
+
+	/**
+	 * Generates a new identifier.
+	 * 
+	 * @return The new identifier. It must be different from every identifier
+	 *         that has been returned before.
+	 */
+	long nextId();
+	
+}
@@ -47,6 +47,18 @@ public interface BurdeeListener extends PropertyChangeListener {
 	 */
 	void childRemoved(BurdeeChildEvent evt);
 
+	/**
+	 * This event is fired every time a child {@link BurdeeObject} is moved to
+	 * another index or to another parent {@link BurdeeObject}. The child stays
+	 * attached to the hierarchy and keeps its listeners throughout the move.
+	 * 
+	 * @param evt
+	 *            The {@link BurdeeChildEvent} that contains information about
+	 *            the event, including the old parent and index of the child.
+	 * @see BurdeeObject#moveChild(BurdeeObject, BurdeeObject, int)
+	 */
+	void childMoved(BurdeeChildEvent evt);
+
 	/**
 	 * This event is fired every time a property on a {@link BurdeeObject} is
 	 * changed.
@@ -57,4 +69,17 @@ public interface BurdeeListener extends PropertyChangeListener {
 	 */
 	void propertyChange(PropertyChangeEvent evt);
 
+	/**
+	 * This event is fired when a transaction on a {@link BurdeeObject} is
+	 * committed. It replaces all of the child added, child removed, and
+	 * property change events that occurred during the transaction.
+	 * 
+	 * @param evt
+	 *            The {@link BurdeeTransactionEvent} that contains all of the
+	 *            events of the transaction.
+	 * @see BurdeeObject#begin()
+	 * @see BurdeeObject#commit()
+	 */
+	void transactionCommitted(BurdeeTransactionEvent evt);
+
 }
@@ -0,0 +1,305 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ca.burdee.object.BurdeeChildEvent.EventType;
+import ca.burdee.object.metrics.ListenerMetrics;
+
+/**
+ * An immutable set of {@link BurdeeListener}s, each registered with a
+ * {@link BurdeeEventFilter}. Adding or removing a listener creates a new
+ * {@link BurdeeListenerSet}, so events can be delivered from a snapshot
+ * without holding a lock.
+ * <p>
+ * The listeners are partitioned by the events their filters accept. The
+ * partition for a child class or a property name is worked out the first
+ * time such an event is delivered and is then cached for the lifetime of the
+ * set, so delivering an event only calls the listeners that accept it.
+ * <p>
+ * Every invocation of a listener is recorded by {@link ListenerMetrics}.
+ */
+final class BurdeeListenerSet {
+
+	private static final ListenerMetrics metrics = ListenerMetrics.getInstance();
+
+	/**
+	 * The shared empty {@link BurdeeListenerSet}.
+	 */
+	static final BurdeeListenerSet EMPTY = 
+		new BurdeeListenerSet(new BurdeeListener[0], new BurdeeEventFilter[0]);
+
+	/**
+	 * The registered {@link BurdeeListener}s, in the order they were added.
+	 */
+	private final BurdeeListener[] listeners;
+
+	/**
+	 * The {@link BurdeeEventFilter} of each listener in {@link #listeners}.
+	 */
+	private final BurdeeEventFilter[] filters;
+
+	/**
+	 * Whether every listener is registered with {@link BurdeeEventFilter#ALL},
+	 * in which case no partitioning is needed.
+	 */
+	private final boolean unfiltered;
+
+	/**
+	 * The listeners that accept child added events, by child class.
+	 */
+	private final ConcurrentMap<Class<?>, BurdeeListener[]> childAddedListeners = 
+		new ConcurrentHashMap<Class<?>, BurdeeListener[]>();
+
+	/**
+	 * The listeners that accept child removed events, by child class.
+	 */
+	private final ConcurrentMap<Class<?>, BurdeeListener[]> childRemovedListeners = 
+		new ConcurrentHashMap<Class<?>, BurdeeListener[]>();
+
+	/**
+	 * The listeners that accept child moved events, by child class.
+	 */
+	private final ConcurrentMap<Class<?>, BurdeeListener[]> childMovedListeners = 
+		new ConcurrentHashMap<Class<?>, BurdeeListener[]>();
+
+	/**
+	 * The listeners that accept property change events, by property name.
+	 */
+	private final ConcurrentMap<String, BurdeeListener[]> propertyListeners = 
+		new ConcurrentHashMap<String, BurdeeListener[]>();
+
+	private BurdeeListenerSet(BurdeeListener[] listeners, BurdeeEventFilter[] filters) {
+		this.listeners = listeners;
+		this.filters = filters;
+		boolean unfiltered = true;
+		for (BurdeeEventFilter filter : filters) {
+			unfiltered &= filter == BurdeeEventFilter.ALL;
+		}
+		this.unfiltered = unfiltered;
+	}
+
+	/**
+	 * Checks whether this set has no listeners.
+	 */
+	boolean isEmpty() {
+		return listeners.length == 0;
+	}
+
+	/**
+	 * Checks whether any listener in this set accepts property change events
+	 * for a given property name. After the first call for a property name,
+	 * this only reads the cached partition and does not allocate.
+	 */
+	boolean acceptsProperty(String propertyName) {
+		return getPropertyListeners(propertyName).length > 0;
+	}
+
+	/**
+	 * Creates a copy of this set with a listener added to the end. If the
+	 * listener is already in this set, it is moved to the end with its new
+	 * filter so that a particular listener is never added twice.
+	 * 
+	 * @param l
+	 *            The {@link BurdeeListener} to add.
+	 * @param filter
+	 *            The {@link BurdeeEventFilter} of the events it accepts.
+	 * @return The new {@link BurdeeListenerSet}.
+	 */
+	BurdeeListenerSet with(BurdeeListener l, BurdeeEventFilter filter) {
+		BurdeeListenerSet without = without(l);
+		int length = without.listeners.length;
+		BurdeeListener[] newListeners = new BurdeeListener[length + 1];
+		BurdeeEventFilter[] newFilters = new BurdeeEventFilter[length + 1];
+		System.arraycopy(without.listeners, 0, newListeners, 0, length);
+		System.arraycopy(without.filters, 0, newFilters, 0, length);
+		newListeners[length] = l;
+		newFilters[length] = filter;
+		return new BurdeeListenerSet(newListeners, newFilters);
+	}
+
+	/**
+	 * Creates a copy of this set without a listener.
+	 * 
+	 * @param l
+	 *            The {@link BurdeeListener} to remove.
+	 * @return The new {@link BurdeeListenerSet}, or this set if the listener
+	 *         is not in it.
+	 */
+	BurdeeListenerSet without(BurdeeListener l) {
+		int index = -1;
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == l) {
+				index = i;
+				break;
+			}
+		}
+		if (index < 0) {
+			return this;
+		} else if (listeners.length == 1) {
+			return EMPTY;
+		}
+		
+		BurdeeListener[] newListeners = new BurdeeListener[listeners.length - 1];
+		BurdeeEventFilter[] newFilters = new BurdeeEventFilter[filters.length - 1];
+		System.arraycopy(listeners, 0, newListeners, 0, index);
+		System.arraycopy(listeners, index + 1, newListeners, index, listeners.length - index - 1);
+		System.arraycopy(filters, 0, newFilters, 0, index);
+		System.arraycopy(filters, index + 1, newFilters, index, filters.length - index - 1);
+		return new BurdeeListenerSet(newListeners, newFilters);
+	}
+
+	/**
+	 * Delivers a child added event to the listeners that accept it.
+	 */
+	void fireChildAdded(BurdeeChildEvent evt) {
+		for (BurdeeListener listener : getChildListeners(EventType.ADDED, evt.getChild().getClass())) {
+			long start = metrics.start(listener);
+			listener.childAdded(evt);
+			metrics.stop(listener, start);
+		}
+	}
+
+	/**
+	 * Delivers a child removed event to the listeners that accept it.
+	 */
+	void fireChildRemoved(BurdeeChildEvent evt) {
+		for (BurdeeListener listener : getChildListeners(EventType.REMOVED, evt.getChild().getClass())) {
+			long start = metrics.start(listener);
+			listener.childRemoved(evt);
+			metrics.stop(listener, start);
+		}
+	}
+
+	/**
+	 * Delivers a child moved event to the listeners that accept it.
+	 */
+	void fireChildMoved(BurdeeChildEvent evt) {
+		for (BurdeeListener listener : getChildListeners(EventType.MOVED, evt.getChild().getClass())) {
+			long start = metrics.start(listener);
+			listener.childMoved(evt);
+			metrics.stop(listener, start);
+		}
+	}
+
+	/**
+	 * Delivers a property change event to the listeners that accept it.
+	 */
+	void firePropertyChange(PropertyChangeEvent evt) {
+		for (BurdeeListener listener : getPropertyListeners(evt.getPropertyName())) {
+			long start = metrics.start(listener);
+			listener.propertyChange(evt);
+			metrics.stop(listener, start);
+		}
+	}
+
+	/**
+	 * Delivers a transaction committed event to the listeners that accept at
+	 * least one of the events of the transaction. A listener with a filter
+	 * receives a {@link BurdeeTransactionEvent} that only contains the events
+	 * it accepts.
+	 */
+	void fireTransactionCommitted(BurdeeTransactionEvent evt) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (filters[i] == BurdeeEventFilter.ALL) {
+				long start = metrics.start(listeners[i]);
+				listeners[i].transactionCommitted(evt);
+				metrics.stop(listeners[i], start);
+				continue;
+			}
+			
+			List<EventObject> accepted = new ArrayList<EventObject>();
+			for (EventObject event : evt.getEvents()) {
+				if (filters[i].accepts(event)) {
+					accepted.add(event);
+				}
+			}
+			if (accepted.isEmpty()) {
+				continue;
+			}
+			long start = metrics.start(listeners[i]);
+			if (accepted.size() == evt.getEvents().size()) {
+				listeners[i].transactionCommitted(evt);
+			} else {
+				listeners[i].transactionCommitted(new BurdeeTransactionEvent(evt.getSource(), accepted));
+			}
+			metrics.stop(listeners[i], start);
+		}
+	}
+
+	/**
+	 * Gets the listeners that accept child events of a given type for a given
+	 * child class.
+	 */
+	private BurdeeListener[] getChildListeners(EventType type, Class<?> childClass) {
+		if (unfiltered) {
+			return listeners;
+		}
+		ConcurrentMap<Class<?>, BurdeeListener[]> partitions;
+		if (type == EventType.ADDED) {
+			partitions = childAddedListeners;
+		} else if (type == EventType.REMOVED) {
+			partitions = childRemovedListeners;
+		} else {
+			partitions = childMovedListeners;
+		}
+		BurdeeListener[] partition = partitions.get(childClass);
+		if (partition == null) {
+			List<BurdeeListener> accepting = new ArrayList<BurdeeListener>();
+			for (int i = 0; i < listeners.length; i++) {
+				if (filters[i].acceptsChild(type, childClass)) {
+					accepting.add(listeners[i]);
+				}
+			}
+			partition = accepting.toArray(new BurdeeListener[accepting.size()]);
+			partitions.putIfAbsent(childClass, partition);
+		}
+		return partition;
+	}
+
+	/**
+	 * Gets the listeners that accept property change events for a given
+	 * property name.
+	 */
+	private BurdeeListener[] getPropertyListeners(String propertyName) {
+		if (unfiltered) {
+			return listeners;
+		}
+		BurdeeListener[] partition = propertyListeners.get(propertyName);
+		if (partition == null) {
+			List<BurdeeListener> accepting = new ArrayList<BurdeeListener>();
+			for (int i = 0; i < listeners.length; i++) {
+				if (filters[i].acceptsProperty(propertyName)) {
+					accepting.add(listeners[i]);
+				}
+			}
+			partition = accepting.toArray(new BurdeeListener[accepting.size()]);
+			propertyListeners.putIfAbsent(propertyName, partition);
+		}
+		return partition;
+	}
+
+}
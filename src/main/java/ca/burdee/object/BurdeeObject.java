@@ -20,7 +20,8 @@ package ca.burdee.object;
 
 import java.beans.PropertyChangeEvent;
 import java.util.List;
-import java.util.UUID;
+
+import javax.swing.tree.TreePath;
 
 /**
  * An arbitrary object within the Burdee chat client that can have properties
@@ -28,6 +29,21 @@ import java.util.UUID;
  */
 public interface BurdeeObject {
 
+	/**
+	 * The name property of every {@link BurdeeObject}.
+	 * 
+	 * @see #getName()
+	 */
+	BurdeeProperty<String> NAME = BurdeeProperty.create(BurdeeObject.class, "name", String.class);
+
+	/**
+	 * The parent property of every {@link BurdeeObject}.
+	 * 
+	 * @see #getParent()
+	 */
+	BurdeeProperty<BurdeeObject> PARENT = 
+		BurdeeProperty.create(BurdeeObject.class, "parent", BurdeeObject.class);
+
 	/**
 	 * Gets the name of this {@link BurdeeObject}.
 	 * 
@@ -44,10 +60,20 @@ public interface BurdeeObject {
 	void setName(String name);
 
 	/**
-	 * Gets the universally unique identifier for this {@link BurdeeObject}.
+	 * Gets the unique identifier of this {@link BurdeeObject}. It is assigned
+	 * by a {@link BurdeeIdGenerator} when the object is created and never
+	 * changes.
 	 * 
-	 * @return The {@link String} representation of the {@link UUID} of this
-	 *         {@link BurdeeObject}.
+	 * @return The identifier of this {@link BurdeeObject}.
+	 */
+	long getId();
+
+	/**
+	 * Gets the unique identifier of this {@link BurdeeObject} as a
+	 * {@link String}.
+	 * 
+	 * @return The {@link String} representation of {@link #getId()}, as 16
+	 *         hexadecimal digits.
 	 */
 	String getUuid();
 
@@ -64,7 +90,9 @@ public interface BurdeeObject {
 
 	/**
 	 * Gets the {@link List} of child {@link BurdeeObject}s of type T that
-	 * belong to this parent {@link BurdeeObject}.
+	 * belong to this parent {@link BurdeeObject}. When T is one of the
+	 * {@link #getAllowedChildTypes()}, the returned {@link List} is a
+	 * read-only view that reflects later additions and removals.
 	 * 
 	 * @param <T>
 	 *            The child class type to return the {@link List} of children
@@ -105,6 +133,47 @@ public interface BurdeeObject {
 	 */
 	boolean removeChild(BurdeeObject child);
 
+	/**
+	 * Adds a number of child {@link BurdeeObject}s to the end of the children
+	 * of their types. All of the children are validated before any of them is
+	 * added, and a single {@link BurdeeChildEvent} is fired for each child
+	 * type instead of one per child.
+	 * 
+	 * @param children
+	 *            The child {@link BurdeeObject}s to add.
+	 */
+	void addChildren(List<? extends BurdeeObject> children);
+
+	/**
+	 * Removes a number of child {@link BurdeeObject}s from this parent
+	 * {@link BurdeeObject}. A single {@link BurdeeChildEvent} is fired for
+	 * each child type instead of one per child. Objects that are not children
+	 * of this parent are ignored.
+	 * 
+	 * @param children
+	 *            The child {@link BurdeeObject}s to remove.
+	 * @return true if every one of the given objects was removed.
+	 */
+	boolean removeChildren(List<? extends BurdeeObject> children);
+
+	/**
+	 * Moves a child {@link BurdeeObject} of this parent to another index, or
+	 * to another parent {@link BurdeeObject}. Unlike removing the child and
+	 * adding it again, the child stays in the hierarchy throughout the move,
+	 * keeps all of its listeners, and a single child moved
+	 * {@link BurdeeChildEvent} is fired instead of a removal and an addition.
+	 * 
+	 * @param child
+	 *            The child {@link BurdeeObject} to move.
+	 * @param newParent
+	 *            The parent {@link BurdeeObject} to move the child to. This
+	 *            may be this parent to only move the child to another index.
+	 * @param index
+	 *            The index of the child in the new parent after the move,
+	 *            relative to the {@link List} of children of the same type.
+	 */
+	void moveChild(BurdeeObject child, BurdeeObject newParent, int index);
+
 	/**
 	 * Checks if this {@link BurdeeObject} allows child {@link BurdeeObject}s to
 	 * be added.
@@ -149,6 +218,17 @@ public interface BurdeeObject {
 	 */
 	void setParent(BurdeeObject parent);
 
+	/**
+	 * Gets the path from the top ancestor down to this {@link BurdeeObject}.
+	 * The path is cached, and is only rebuilt when this object or one of its
+	 * ancestors has been given a new parent, so repeated calls do not
+	 * allocate.
+	 * 
+	 * @return The {@link TreePath} whose first element is the top ancestor
+	 *         and whose last element is this {@link BurdeeObject}.
+	 */
+	TreePath getTreePath();
+
 	/**
 	 * Adds a {@link BurdeeListener} to this {@link BurdeeObject}. Whenever a
 	 * child {@link BurdeeObject} is added or removed from this
@@ -163,6 +243,21 @@ public interface BurdeeObject {
 	 */
 	void addBurdeeListener(BurdeeListener l);
 
+	/**
+	 * Adds a {@link BurdeeListener} to this {@link BurdeeObject} that is only
+	 * notified of the events accepted by a {@link BurdeeEventFilter}. The
+	 * listener is never called for the other events, and a transaction is
+	 * delivered to it with only the events it accepts.
+	 * 
+	 * @param l
+	 *            The {@link BurdeeListener} to attach to this
+	 *            {@link BurdeeObject}.
+	 * @param filter
+	 *            The {@link BurdeeEventFilter} of the events to notify the
+	 *            listener of.
+	 */
+	void addBurdeeListener(BurdeeListener l, BurdeeEventFilter filter);
+
 	/**
 	 * Removes a {@link BurdeeListener} from this {@link BurdeeObject}. Whenever
 	 * a child added, child removed, or property change occurs on this
@@ -175,5 +270,106 @@ public interface BurdeeObject {
 	 *            {@link BurdeeObject}.
 	 */
 	void removeBurdeeListener(BurdeeListener l);
+
+	/**
+	 * Adds a {@link BurdeeListener} to this {@link BurdeeObject} and its entire
+	 * subtree. Child added, child removed, and property change events fired by
+	 * this {@link BurdeeObject} or any of its descendants bubble up the parent
+	 * chain to this listener, so a single registration on the
+	 * {@link BurdeeRoot} receives every event in the hierarchy. Descendants
+	 * added later are covered automatically.
+	 * 
+	 * @param l
+	 *            The {@link BurdeeListener} to attach to this
+	 *            {@link BurdeeObject}'s hierarchy.
+	 */
+	void addHierarchyListener(BurdeeListener l);
+
+	/**
+	 * Adds a {@link BurdeeListener} to this {@link BurdeeObject} and its entire
+	 * subtree that is only notified of the events accepted by a
+	 * {@link BurdeeEventFilter}. The listener is never called for the other
+	 * events, and a transaction is delivered to it with only the events it
+	 * accepts.
+	 * 
+	 * @param l
+	 *            The {@link BurdeeListener} to attach to this
+	 *            {@link BurdeeObject}'s hierarchy.
+	 * @param filter
+	 *            The {@link BurdeeEventFilter} of the events to notify the
+	 *            listener of.
+	 */
+	void addHierarchyListener(BurdeeListener l, BurdeeEventFilter filter);
+
+	/**
+	 * Removes a {@link BurdeeListener} that was added through
+	 * {@link #addHierarchyListener(BurdeeListener)}. If this listener is not
+	 * attached to this {@link BurdeeObject}'s hierarchy, calling this method
+	 * will have no effect.
+	 * 
+	 * @param l
+	 *            The {@link BurdeeListener} to detach from this
+	 *            {@link BurdeeObject}'s hierarchy.
+	 */
+	void removeHierarchyListener(BurdeeListener l);
+
+	/**
+	 * Adds a {@link BurdeePropertyListener} that is only notified when the
+	 * given {@link BurdeeProperty} of this {@link BurdeeObject} changes. Adding
+	 * the same listener for the same property twice has no effect.
+	 * 
+	 * @param property
+	 *            The {@link BurdeeProperty} to listen to.
+	 * @param l
+	 *            The {@link BurdeePropertyListener} to attach.
+	 */
+	void addPropertyListener(BurdeeProperty<?> property, BurdeePropertyListener l);
+
+	/**
+	 * Removes a {@link BurdeePropertyListener} that was added through
+	 * {@link #addPropertyListener(BurdeeProperty, BurdeePropertyListener)}. If
+	 * the listener is not attached for the given property, calling this method
+	 * will have no effect.
+	 * 
+	 * @param property
+	 *            The {@link BurdeeProperty} the listener was added for.
+	 * @param l
+	 *            The {@link BurdeePropertyListener} to detach.
+	 */
+	void removePropertyListener(BurdeeProperty<?> property, BurdeePropertyListener l);
+
+	/**
+	 * Begins a transaction on this {@link BurdeeObject}. Until the matching
+	 * call to {@link #commit()}, child added, child removed, and property
+	 * change events fired by this {@link BurdeeObject} are held back instead
+	 * of being delivered. Transactions can be nested; the events are only
+	 * delivered when the outermost transaction is committed. Every call to
+	 * this method must be paired with a call to {@link #commit()}, typically
+	 * in a finally block.
+	 * <p>
+	 * A transaction belongs to this {@link BurdeeObject}, not to the thread
+	 * that began it. While it is open, the events that other threads fire on
+	 * this {@link BurdeeObject} are held back as well, and are delivered as
+	 * part of the same {@link BurdeeTransactionEvent} when the transaction is
+	 * committed. For example, a contact that the connection thread adds to
+	 * an account while the roster is being loaded in a
+	 * transaction is delivered with the loaded roster. Events fired on other
+	 * objects, such as the children of this {@link BurdeeObject}, are not
+	 * held back. A transaction should therefore be kept short,
+	 * and a thread that needs its events delivered immediately must not rely
+	 * on another thread's transaction being committed soon.
+	 */
+	void begin();
+
+	/**
+	 * Commits a transaction started by {@link #begin()}. When the outermost
+	 * transaction is committed, all of the events held back during the
+	 * transaction are delivered as a single {@link BurdeeTransactionEvent},
+	 * including those fired by other threads while it was open.
+	 * 
+	 * @throws IllegalStateException
+	 *             Thrown if there is no transaction to commit.
+	 */
+	void commit();
 	
 }
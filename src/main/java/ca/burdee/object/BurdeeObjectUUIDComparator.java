@@ -21,8 +21,10 @@ package ca.burdee.object;
 import java.util.Comparator;
 
 /**
- * This {@link Comparator} compares {@link BurdeeObject}s by their UUID. Null
- * objects can be compared.
+ * This {@link Comparator} compares {@link BurdeeObject}s by their identifier,
+ * numerically, using {@link BurdeeObject#getId()} rather than the
+ * {@link String} returned by {@link BurdeeObject#getUuid()}. Null objects can
+ * be compared.
  * 
  * @param <T>
  *            The type of {@link BurdeeObject} that is being compared.
@@ -38,7 +40,9 @@ public class BurdeeObjectUUIDComparator<T extends BurdeeObject> implements Compa
 		} else if (o2 == null) {
 			return 1;
 		} else {
-			return o1.getUuid().compareTo(o2.getUuid());
+			long id1 = o1.getId();
+			long id2 = o2.getId();
+			return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
 		}
 	}
 
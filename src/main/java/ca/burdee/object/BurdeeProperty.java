@@ -0,0 +1,227 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class describes a single property of a {@link BurdeeObject} class,
+ * such as the name of every {@link BurdeeObject} or the status of a contact.
+ * There is exactly one {@link BurdeeProperty} instance per property, so
+ * properties can be compared with == instead of comparing property name
+ * {@link String}s. Each property is also given a small unique id, which lets
+ * {@link BurdeePropertyListener}s be looked up by array index when the
+ * property changes.
+ * 
+ * @param <T>
+ *            The type of the property value.
+ */
+public final class BurdeeProperty<T> {
+
+	/**
+	 * The source of {@link #getId()} values.
+	 */
+	private static final AtomicInteger nextId = new AtomicInteger();
+
+	/**
+	 * The registry of all {@link BurdeeProperty}s, keyed by the class that
+	 * declares them and then by property name.
+	 */
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<String, BurdeeProperty<?>>> registry = 
+		new ConcurrentHashMap<Class<?>, ConcurrentMap<String, BurdeeProperty<?>>>();
+
+	/**
+	 * @see #getOwner()
+	 */
+	private final Class<?> owner;
+
+	/**
+	 * @see #getName()
+	 */
+	private final String name;
+
+	/**
+	 * @see #getType()
+	 */
+	private final Class<T> type;
+
+	/**
+	 * @see #getId()
+	 */
+	private final int id;
+
+	/**
+	 * Creates a new {@link BurdeeProperty}. Use
+	 * {@link #create(Class, String, Class)} instead so that the property gets
+	 * registered.
+	 */
+	private BurdeeProperty(Class<?> owner, String name, Class<T> type) {
+		this.owner = owner;
+		this.name = name.intern();
+		this.type = type;
+		this.id = nextId.getAndIncrement();
+	}
+
+	/**
+	 * Creates and registers a new {@link BurdeeProperty}. This is meant to be
+	 * called once per property, to initialize a constant on the class that
+	 * declares the property.
+	 * 
+	 * @param <T>
+	 *            The type of the property value.
+	 * @param owner
+	 *            The {@link BurdeeObject} class or interface that declares the
+	 *            property.
+	 * @param name
+	 *            The name of the property.
+	 * @param type
+	 *            The {@link Class} of the property value.
+	 * @return The new {@link BurdeeProperty}.
+	 * @throws IllegalArgumentException
+	 *             Thrown if the owner already declares a property with the
+	 *             same name.
+	 */
+	public static <T> BurdeeProperty<T> create(Class<? extends BurdeeObject> owner, 
+			String name, Class<T> type) {
+		BurdeeProperty<T> property = new BurdeeProperty<T>(owner, name, type);
+		if (getProperties(owner).putIfAbsent(name, property) != null) {
+			throw new IllegalArgumentException("The property " + name + 
+					" has already been declared by " + owner + ".");
+		}
+		return property;
+	}
+
+	/**
+	 * Finds the {@link BurdeeProperty} with the given name that applies to a
+	 * {@link BurdeeObject} class. Properties declared by the class itself, its
+	 * superclasses, and their interfaces are searched. If no such property has
+	 * been declared, a new untyped property is registered against the given
+	 * class so that later lookups return the same instance.
+	 * 
+	 * @param clazz
+	 *            The {@link BurdeeObject} class to find the property for.
+	 * @param name
+	 *            The name of the property.
+	 * @return The matching {@link BurdeeProperty}.
+	 */
+	public static BurdeeProperty<?> forName(Class<? extends BurdeeObject> clazz, String name) {
+		// The class must be initialized so that the property constants it
+		// and its superclasses declare have been registered.
+		try {
+			Class.forName(clazz.getName(), true, clazz.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException(e);
+		}
+		
+		BurdeeProperty<?> property = find(clazz, name);
+		if (property != null) {
+			return property;
+		}
+		BurdeeProperty<Object> newProperty = new BurdeeProperty<Object>(clazz, name, Object.class);
+		BurdeeProperty<?> existing = getProperties(clazz).putIfAbsent(name, newProperty);
+		return existing == null ? newProperty : existing;
+	}
+
+	/**
+	 * Searches a class, its superclasses, and their interfaces for a declared
+	 * {@link BurdeeProperty}.
+	 * 
+	 * @param clazz
+	 *            The class to search.
+	 * @param name
+	 *            The name of the property.
+	 * @return The matching {@link BurdeeProperty}, or null if there is none.
+	 */
+	private static BurdeeProperty<?> find(Class<?> clazz, String name) {
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			ConcurrentMap<String, BurdeeProperty<?>> properties = registry.get(c);
+			if (properties != null && properties.containsKey(name)) {
+				return properties.get(name);
+			}
+			for (Class<?> i : c.getInterfaces()) {
+				BurdeeProperty<?> property = find(i, name);
+				if (property != null) {
+					return property;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the properties declared by a class, creating the registry entry
+	 * if needed.
+	 */
+	private static ConcurrentMap<String, BurdeeProperty<?>> getProperties(Class<?> owner) {
+		ConcurrentMap<String, BurdeeProperty<?>> properties = registry.get(owner);
+		if (properties == null) {
+			properties = new ConcurrentHashMap<String, BurdeeProperty<?>>();
+			ConcurrentMap<String, BurdeeProperty<?>> existing = registry.putIfAbsent(owner, properties);
+			if (existing != null) {
+				properties = existing;
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * Gets the class or interface that declares this property.
+	 * 
+	 * @return The declaring class.
+	 */
+	public Class<?> getOwner() {
+		return owner;
+	}
+
+	/**
+	 * Gets the name of this property. The returned {@link String} is interned.
+	 * 
+	 * @return The property name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the type of the property value.
+	 * 
+	 * @return The {@link Class} of the property value.
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the unique id of this property. Ids are small, dense, and assigned
+	 * in order of creation, which makes them suitable as array indices.
+	 * 
+	 * @return The property id.
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	@Override
+	public String toString() {
+		return owner.getSimpleName() + "." + name;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+
+/**
+ * This {@link PropertyChangeEvent} is fired by {@link BurdeeObject}s and also
+ * carries the {@link BurdeeProperty} that changed, so that listeners can
+ * compare properties with == instead of comparing property names.
+ */
+public class BurdeePropertyChangeEvent extends PropertyChangeEvent {
+
+	/**
+	 * @see #getProperty()
+	 */
+	private final BurdeeProperty<?> property;
+
+	/**
+	 * Creates a new {@link BurdeePropertyChangeEvent}.
+	 * 
+	 * @param source
+	 *            The {@link BurdeeObject} whose property changed.
+	 * @param property
+	 *            The {@link BurdeeProperty} that changed.
+	 * @param oldValue
+	 *            The old value of the property. This value can be null.
+	 * @param newValue
+	 *            The new value of the property. This value can be null.
+	 */
+	public BurdeePropertyChangeEvent(BurdeeObject source, BurdeeProperty<?> property, 
+			Object oldValue, Object newValue) {
+		super(source, property.getName(), oldValue, newValue);
+		this.property = property;
+	}
+	
+	@Override
+	public BurdeeObject getSource() {
+		return (BurdeeObject) source;
+	}
+
+	/**
+	 * Gets the {@link BurdeeProperty} that changed.
+	 * 
+	 * @return The {@link BurdeeProperty}.
+	 */
+	public BurdeeProperty<?> getProperty() {
+		return property;
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+import java.util.EventListener;
+
+/**
+ * This {@link EventListener} listens to changes of specific
+ * {@link BurdeeProperty}s on a {@link BurdeeObject}. Unlike a
+ * {@link BurdeeListener}, it is only notified of the properties it was
+ * registered for, and no {@link PropertyChangeEvent} is created to notify it.
+ * 
+ * @see BurdeeObject#addPropertyListener(BurdeeProperty, BurdeePropertyListener)
+ */
+public interface BurdeePropertyListener extends EventListener {
+
+	/**
+	 * This event is fired every time a property this listener was registered
+	 * for is changed on a {@link BurdeeObject}.
+	 * 
+	 * @param source
+	 *            The {@link BurdeeObject} whose property changed.
+	 * @param property
+	 *            The {@link BurdeeProperty} that changed.
+	 * @param oldValue
+	 *            The old value of the property. This value can be null.
+	 * @param newValue
+	 *            The new value of the property. This value can be null.
+	 */
+	void propertyChanged(BurdeeObject source, BurdeeProperty<?> property, 
+			Object oldValue, Object newValue);
+
+}
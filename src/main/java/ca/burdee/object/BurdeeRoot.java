@@ -18,12 +18,22 @@
 
 package ca.burdee.object;
 
+import java.beans.PropertyChangeEvent;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EventObject;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import ca.burdee.object.BurdeeChildEvent.EventType;
 import ca.burdee.object.account.Account;
-import ca.burdee.object.account.FailedConnectionException;
+import ca.burdee.object.account.ConnectionScheduler;
+import ca.burdee.object.account.ConnectionSchedulerListener;
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
 
 /**
  * The root {@link BurdeeObject} that contains {@link Account}s. This object is
@@ -31,66 +41,461 @@ import ca.burdee.object.account.FailedConnectionException;
  */
 public class BurdeeRoot extends AbstractBurdeeObject {
 	
-	/**
-	 * The {@link List} of child {@link Account}s that are connected.
-	 */
-	private List<Account> accounts = new ArrayList<Account>();
-
 	/**
 	 * This {@link BurdeeListener} listens for added and removed child
 	 * {@link Account}s from this {@link BurdeeRoot}. When an {@link Account} is
 	 * added and its connect automatically property is set to true, this
-	 * listener attempts to connect that {@link Account} to its IM service. When
-	 * an {@link Account} is removed, this listener disconnects the
+	 * listener schedules that {@link Account} to connect to its IM service on
+	 * the {@link #connectionScheduler}. When an {@link Account} is removed,
+	 * this listener cancels its pending connection and disconnects the
 	 * {@link Account} from its IM service if it is still connected.
 	 */
 	private BurdeeListener accountListener = new AbstractBurdeeListener() {
 		
 		@Override
 		public void childAdded(BurdeeChildEvent evt) {
-			if (evt.getSource() == BurdeeRoot.this && 
-					Account.class.isAssignableFrom(evt.getChild().getClass()) &&
-					((Account) evt.getChild()).isConnectAutomatically()) {
-				try {
-					((Account) evt.getChild()).connect();
-				} catch (FailedConnectionException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
+			if (evt.getSource() != BurdeeRoot.this) {
+				return;
+			}
+			for (BurdeeObject child : evt.getChildren()) {
+				if (child instanceof Account && ((Account) child).isConnectAutomatically()) {
+					connectionScheduler.schedule((Account) child);
 				}
 			}
 		}
 		
 		@Override
 		public void childRemoved(BurdeeChildEvent evt) {
-			if (evt.getSource() == BurdeeRoot.this &&
-					Account.class.isAssignableFrom(evt.getChild().getClass())) {
-				((Account) evt.getChild()).disconnect();
+			if (evt.getSource() != BurdeeRoot.this) {
+				return;
 			}
+			for (BurdeeObject child : evt.getChildren()) {
+				if (child instanceof Account) {
+					connectionScheduler.cancel((Account) child);
+					((Account) child).disconnect();
+				}
+			}
+		}
+		
+		@Override
+		public void childMoved(BurdeeChildEvent evt) {
+			// Reordering the Accounts must not reconnect them.
 		}
 		
 	};
 	
+	/**
+	 * Connects the {@link Account}s that are added to this {@link BurdeeRoot}
+	 * and connect automatically, several at a time and off the thread that
+	 * added them.
+	 * 
+	 * @see #getConnectionScheduler()
+	 */
+	private final ConnectionScheduler connectionScheduler = new ConnectionScheduler();
+	
+	/**
+	 * Every {@link BurdeeObject} in the hierarchy below this
+	 * {@link BurdeeRoot}, keyed by {@link BurdeeObject#getId()}. It is kept up
+	 * to date by {@link AbstractBurdeeObject#addChild(BurdeeObject)} and
+	 * {@link AbstractBurdeeObject#removeChild(BurdeeObject)} before their
+	 * events are fired, so it is never behind the hierarchy, not even during a
+	 * transaction.
+	 * 
+	 * @see #getObject(long)
+	 */
+	private final ConcurrentMap<Long, BurdeeObject> registry = 
+		new ConcurrentHashMap<Long, BurdeeObject>();
+	
+	/**
+	 * The number of changes kept by {@link #journal}.
+	 */
+	private static final int JOURNAL_CAPACITY = 4096;
+	
+	/**
+	 * The journal of the latest changes made anywhere in the hierarchy below
+	 * this {@link BurdeeRoot}.
+	 * 
+	 * @see #getJournal()
+	 * @see #catchUp(long, BurdeeListener)
+	 */
+	private final BurdeeChangeJournal journal = new BurdeeChangeJournal(JOURNAL_CAPACITY);
+	
+	/**
+	 * Whether the {@link #journalListener} has been attached yet.
+	 */
+	private final AtomicBoolean journalAttached = new AtomicBoolean();
+	
+	/**
+	 * This {@link BurdeeListener} records every change in the hierarchy in the
+	 * {@link #journal}. The changes of a transaction are recorded one by one
+	 * when it is committed. It is attached to the hierarchy of this
+	 * {@link BurdeeRoot} only once the journal is first used, since it
+	 * observes every object in the hierarchy.
+	 * 
+	 * @see #attachJournal()
+	 */
+	private final BurdeeListener journalListener = new AbstractBurdeeListener() {
+		
+		@Override
+		public void childAdded(BurdeeChildEvent evt) {
+			journal.record(evt);
+		}
+		
+		@Override
+		public void childRemoved(BurdeeChildEvent evt) {
+			journal.record(evt);
+		}
+		
+		@Override
+		public void childMoved(BurdeeChildEvent evt) {
+			journal.record(evt);
+		}
+		
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			journal.record(evt);
+		}
+		
+	};
+	
+	/**
+	 * The search index over the names and addresses of the {@link Contact}s
+	 * of every {@link Account} of this {@link BurdeeRoot}.
+	 * 
+	 * @see #searchContacts(String, int)
+	 */
+	private final ContactSearchIndex searchIndex = new ContactSearchIndex();
+	
+	/**
+	 * This {@link BurdeeListener} keeps the {@link #searchIndex} up to date as
+	 * {@link Account}s and {@link Contact}s are added and removed, and as
+	 * {@link Contact}s are renamed or change their address. It is attached to
+	 * the hierarchy of this {@link BurdeeRoot} with {@link #SEARCH_EVENTS}.
+	 */
+	private final BurdeeListener searchListener = new AbstractBurdeeListener() {
+		
+		@Override
+		public void childAdded(BurdeeChildEvent evt) {
+			for (BurdeeObject child : evt.getChildren()) {
+				if (child instanceof Account) {
+					for (Contact contact : ((Account) child).getChildren(Contact.class)) {
+						searchIndex.add(contact);
+					}
+				} else if (child instanceof Contact) {
+					searchIndex.add((Contact) child);
+				}
+			}
+		}
+		
+		@Override
+		public void childRemoved(BurdeeChildEvent evt) {
+			for (BurdeeObject child : evt.getChildren()) {
+				if (child instanceof Account) {
+					for (Contact contact : ((Account) child).getChildren(Contact.class)) {
+						searchIndex.remove(contact);
+					}
+				} else if (child instanceof Contact) {
+					searchIndex.remove((Contact) child);
+				}
+			}
+		}
+		
+		@Override
+		public void childMoved(BurdeeChildEvent evt) {
+			boolean inHierarchy = isInHierarchy(evt.getSource());
+			if (inHierarchy == isInHierarchy(evt.getOldParent())) {
+				// The Contacts stay below this BurdeeRoot.
+				return;
+			}
+			for (BurdeeObject child : evt.getChildren()) {
+				List<Contact> contacts;
+				if (child instanceof Account) {
+					contacts = ((Account) child).getChildren(Contact.class);
+				} else if (child instanceof Contact) {
+					contacts = Collections.singletonList((Contact) child);
+				} else {
+					continue;
+				}
+				for (Contact contact : contacts) {
+					if (inHierarchy) {
+						searchIndex.add(contact);
+					} else {
+						searchIndex.remove(contact);
+					}
+				}
+			}
+		}
+		
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			if (evt.getSource() instanceof Contact 
+					&& ((Contact) evt.getSource()).getParent() != null) {
+				searchIndex.add((Contact) evt.getSource());
+			}
+		}
+		
+	};
+	
+	/**
+	 * The events that {@link #searchListener} needs.
+	 */
+	private static final BurdeeEventFilter SEARCH_EVENTS = 
+		BurdeeEventFilter.childEvents(Account.class)
+				.or(BurdeeEventFilter.childEvents(Contact.class))
+				.or(BurdeeEventFilter.propertyChanges(NAME))
+				.or(BurdeeEventFilter.propertyChanges(Contact.ADDRESS));
+	
 	/**
 	 * Creates a new {@link BurdeeRoot}.
 	 */
 	public BurdeeRoot() {
 		super();
-		addBurdeeListener(accountListener);
+		addBurdeeListener(accountListener, BurdeeEventFilter.childEvents(Account.class));
+		addHierarchyListener(searchListener, SEARCH_EVENTS);
+	}
+
+	/**
+	 * Gets the {@link ConnectionScheduler} that connects the {@link Account}s
+	 * of this {@link BurdeeRoot} that connect automatically. Its
+	 * {@link ConnectionSchedulerListener}s follow the progress of those
+	 * connections.
+	 * 
+	 * @return The {@link ConnectionScheduler} of this {@link BurdeeRoot}.
+	 */
+	public ConnectionScheduler getConnectionScheduler() {
+		return connectionScheduler;
+	}
+
+	/**
+	 * Gets the {@link BurdeeChangeJournal} that records the latest changes
+	 * made anywhere in the hierarchy below this {@link BurdeeRoot}. Changes
+	 * are recorded from the first time the journal is used, either here or
+	 * by {@link #catchUp(long, BurdeeListener)}.
+	 * 
+	 * @return The {@link BurdeeChangeJournal} of this {@link BurdeeRoot}.
+	 */
+	public BurdeeChangeJournal getJournal() {
+		attachJournal();
+		return journal;
+	}
+
+	/**
+	 * Attaches the {@link #journalListener} to the hierarchy the first time
+	 * the {@link #journal} is used. Until then nobody can hold a sequence
+	 * number, so nothing is lost by not recording, and objects whose changes
+	 * nobody listens to do not create event objects.
+	 */
+	private void attachJournal() {
+		if (journalAttached.compareAndSet(false, true)) {
+			addHierarchyListener(journalListener);
+		}
+	}
+
+	/**
+	 * Brings a consumer of the hierarchy up to date. If the journal still
+	 * holds every change made after the given sequence number, those changes
+	 * are replayed to the given {@link BurdeeListener} in order. Otherwise the
+	 * consumer has fallen too far behind, and is sent a snapshot of the
+	 * hierarchy instead, as one child added event for every
+	 * {@link BurdeeObject} below this {@link BurdeeRoot} from the top down,
+	 * followed by the changes recorded while the snapshot was taken. Since
+	 * the hierarchy may change while the snapshot is taken, some of those
+	 * changes may already be part of the snapshot.
+	 * <p>
+	 * The returned sequence number should be passed in the next time the
+	 * consumer catches up.
+	 * 
+	 * @param sequence
+	 *            The sequence number of the last change the consumer has seen,
+	 *            or 0 to start with a snapshot.
+	 * @param listener
+	 *            The {@link BurdeeListener} to replay the changes to.
+	 * @return The sequence number of the last change the consumer has now
+	 *         seen.
+	 */
+	public long catchUp(long sequence, BurdeeListener listener) {
+		attachJournal();
+		List<BurdeeChange> changes = 
+			sequence == 0 ? null : journal.getChangesSince(sequence);
+		while (changes == null) {
+			sequence = journal.getLastSequence();
+			replaySnapshot(this, listener);
+			changes = journal.getChangesSince(sequence);
+		}
+		
+		for (BurdeeChange change : changes) {
+			EventObject evt = change.getEvent();
+			if (evt instanceof BurdeeChildEvent) {
+				BurdeeChildEvent childEvt = (BurdeeChildEvent) evt;
+				if (childEvt.getType() == EventType.ADDED) {
+					listener.childAdded(childEvt);
+				} else if (childEvt.getType() == EventType.REMOVED) {
+					listener.childRemoved(childEvt);
+				} else {
+					listener.childMoved(childEvt);
+				}
+			} else {
+				listener.propertyChange((PropertyChangeEvent) evt);
+			}
+			sequence = change.getSequence();
+		}
+		return sequence;
+	}
+
+	/**
+	 * Sends a child added event to a {@link BurdeeListener} for every
+	 * descendant of a {@link BurdeeObject}, parents before their children.
+	 * 
+	 * @param parent
+	 *            The {@link BurdeeObject} whose descendants are sent.
+	 * @param listener
+	 *            The {@link BurdeeListener} to send the events to.
+	 */
+	private static void replaySnapshot(BurdeeObject parent, BurdeeListener listener) {
+		for (Class<? extends BurdeeObject> type : parent.getAllowedChildTypes()) {
+			List<? extends BurdeeObject> children = parent.getChildren(type);
+			for (int i = 0; i < children.size(); i++) {
+				BurdeeObject child = children.get(i);
+				listener.childAdded(new BurdeeChildEvent(parent, child, i, EventType.ADDED));
+				replaySnapshot(child, listener);
+			}
+		}
 	}
 	
-	@Override
-	protected void addChildImpl(BurdeeObject child, int index) {
-		accounts.add((Account) child);
+	/**
+	 * Finds a {@link BurdeeObject} in the hierarchy below this
+	 * {@link BurdeeRoot} by its identifier, without walking the hierarchy.
+	 * 
+	 * @param id
+	 *            The {@link BurdeeObject#getId()} of the object to find.
+	 * @return The {@link BurdeeObject} with the given identifier, or null if
+	 *         there is none below this {@link BurdeeRoot}.
+	 */
+	public BurdeeObject getObject(long id) {
+		return registry.get(id);
 	}
 
-	@Override
-	protected boolean removeChildImpl(BurdeeObject child) {
-		return accounts.remove(child);
+	/**
+	 * Finds a {@link BurdeeObject} in the hierarchy below this
+	 * {@link BurdeeRoot} by the {@link String} form of its identifier.
+	 * 
+	 * @param uuid
+	 *            The {@link BurdeeObject#getUuid()} of the object to find.
+	 * @return The {@link BurdeeObject} with the given identifier, or null if
+	 *         there is none below this {@link BurdeeRoot}.
+	 * @throws IllegalArgumentException
+	 *             If the given {@link String} is not a valid identifier.
+	 */
+	public BurdeeObject getObject(String uuid) {
+		if (uuid == null || uuid.length() != 16) {
+			throw new IllegalArgumentException("Invalid identifier " + uuid + ".");
+		}
+		try {
+			return getObject(new BigInteger(uuid, 16).longValue());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid identifier " + uuid + ".", e);
+		}
+	}
+
+	/**
+	 * Searches the names and addresses of the {@link Contact}s of all of the
+	 * {@link Account}s, ignoring case. {@link Contact}s whose name, address,
+	 * or a word of either starts with the query are ranked first, followed by
+	 * those that contain it anywhere else. The index is kept up to date as
+	 * the hierarchy changes, so a search does not scan the {@link Contact}s.
+	 * 
+	 * @param query
+	 *            The text to search for.
+	 * @param limit
+	 *            The maximum number of {@link Contact}s to return.
+	 * @return The matching {@link Contact}s, best match first.
+	 */
+	public List<Contact> searchContacts(String query, int limit) {
+		return searchIndex.search(query, limit);
 	}
 
+	/**
+	 * Gets the {@link Contact}s of all of the {@link Account}s that have a
+	 * given {@link Status}. Only the {@link Status} bucket of each
+	 * {@link Account} is visited, not the other {@link Contact}s.
+	 * 
+	 * @param status
+	 *            The {@link Status} to get the {@link Contact}s of.
+	 * @return The {@link List} of {@link Contact}s with the {@link Status},
+	 *         grouped by {@link Account}.
+	 * @see Account#getContacts(Status)
+	 */
+	public List<Contact> getContacts(Status status) {
+		List<Contact> contacts = new ArrayList<Contact>(getContactCount(status));
+		for (Account account : getChildren()) {
+			contacts.addAll(account.getContacts(status));
+		}
+		return contacts;
+	}
+
+	/**
+	 * Gets the number of {@link Contact}s of all of the {@link Account}s that
+	 * have a given {@link Status}. Each {@link Account} keeps its own count,
+	 * so this only adds up one count per {@link Account}.
+	 * 
+	 * @param status
+	 *            The {@link Status} to count the {@link Contact}s of.
+	 * @return The number of {@link Contact}s with the {@link Status}.
+	 * @see Account#getContactCount(Status)
+	 */
+	public int getContactCount(Status status) {
+		int count = 0;
+		for (Account account : getChildren()) {
+			count += account.getContactCount(status);
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether a {@link BurdeeObject} is this {@link BurdeeRoot} or in
+	 * the hierarchy below it, using the registry rather than walking up the
+	 * hierarchy.
+	 * 
+	 * @param bo
+	 *            The {@link BurdeeObject} to check.
+	 * @return true if the {@link BurdeeObject} belongs to this
+	 *         {@link BurdeeRoot}.
+	 */
+	private boolean isInHierarchy(BurdeeObject bo) {
+		return bo == this || (bo != null && registry.get(bo.getId()) == bo);
+	}
+
+	/**
+	 * Adds a {@link BurdeeObject} and all of its descendants to the registry
+	 * of this {@link BurdeeRoot}.
+	 * 
+	 * @param bo
+	 *            The {@link BurdeeObject} that was added to the hierarchy.
+	 */
+	void register(BurdeeObject bo) {
+		registry.put(bo.getId(), bo);
+		for (BurdeeObject child : bo.getChildren()) {
+			register(child);
+		}
+	}
+
+	/**
+	 * Removes a {@link BurdeeObject} and all of its descendants from the
+	 * registry of this {@link BurdeeRoot}.
+	 * 
+	 * @param bo
+	 *            The {@link BurdeeObject} that was removed from the hierarchy.
+	 */
+	void unregister(BurdeeObject bo) {
+		registry.remove(bo.getId());
+		for (BurdeeObject child : bo.getChildren()) {
+			unregister(child);
+		}
+	}
+	
 	@Override
 	public List<Account> getChildren() {
-		return Collections.unmodifiableList(accounts);
+		return getChildren(Account.class);
 	}
 
 	@Override
@@ -0,0 +1,137 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+import ca.burdee.object.BurdeeChildEvent.EventType;
+
+/**
+ * This {@link EventObject} represents all of the events that were fired on a
+ * {@link BurdeeObject} between a call to {@link BurdeeObject#begin()} and the
+ * matching call to {@link BurdeeObject#commit()}. The events are kept in the
+ * order in which they were fired.
+ */
+public class BurdeeTransactionEvent extends EventObject {
+
+	/**
+	 * @see #getEvents()
+	 */
+	private final List<EventObject> events;
+
+	/**
+	 * Creates a new {@link BurdeeTransactionEvent}.
+	 * 
+	 * @param source
+	 *            The {@link BurdeeObject} whose transaction was committed.
+	 * @param events
+	 *            The {@link List} of {@link BurdeeChildEvent}s and
+	 *            {@link PropertyChangeEvent}s that were fired during the
+	 *            transaction, in the order they were fired.
+	 */
+	public BurdeeTransactionEvent(BurdeeObject source, List<EventObject> events) {
+		super(source);
+		this.events = Collections.unmodifiableList(new ArrayList<EventObject>(events));
+	}
+	
+	@Override
+	public BurdeeObject getSource() {
+		return (BurdeeObject) source;
+	}
+
+	/**
+	 * Gets all of the {@link BurdeeChildEvent}s and
+	 * {@link PropertyChangeEvent}s that were fired during the transaction, in
+	 * the order they were fired.
+	 * 
+	 * @return The unmodifiable {@link List} of events.
+	 */
+	public List<EventObject> getEvents() {
+		return events;
+	}
+
+	/**
+	 * Gets the child {@link BurdeeObject}s that were added during the
+	 * transaction.
+	 * 
+	 * @return The {@link List} of added children.
+	 */
+	public List<BurdeeObject> getAddedChildren() {
+		return getChildren(EventType.ADDED);
+	}
+
+	/**
+	 * Gets the child {@link BurdeeObject}s that were removed during the
+	 * transaction.
+	 * 
+	 * @return The {@link List} of removed children.
+	 */
+	public List<BurdeeObject> getRemovedChildren() {
+		return getChildren(EventType.REMOVED);
+	}
+
+	/**
+	 * Gets the child {@link BurdeeObject}s that were moved during the
+	 * transaction.
+	 * 
+	 * @return The {@link List} of moved children.
+	 */
+	public List<BurdeeObject> getMovedChildren() {
+		return getChildren(EventType.MOVED);
+	}
+
+	/**
+	 * Gets the {@link PropertyChangeEvent}s that were fired during the
+	 * transaction.
+	 * 
+	 * @return The {@link List} of {@link PropertyChangeEvent}s.
+	 */
+	public List<PropertyChangeEvent> getPropertyChanges() {
+		List<PropertyChangeEvent> propertyChanges = new ArrayList<PropertyChangeEvent>();
+		for (EventObject evt : events) {
+			if (evt instanceof PropertyChangeEvent) {
+				propertyChanges.add((PropertyChangeEvent) evt);
+			}
+		}
+		return propertyChanges;
+	}
+
+	/**
+	 * Gets the child {@link BurdeeObject}s of all {@link BurdeeChildEvent}s of
+	 * a given type.
+	 * 
+	 * @param type
+	 *            The {@link EventType} to match.
+	 * @return The {@link List} of children.
+	 */
+	private List<BurdeeObject> getChildren(EventType type) {
+		List<BurdeeObject> children = new ArrayList<BurdeeObject>();
+		for (EventObject evt : events) {
+			if (evt instanceof BurdeeChildEvent && ((BurdeeChildEvent) evt).getType() == type) {
+				children.addAll(((BurdeeChildEvent) evt).getChildren());
+			}
+		}
+		return children;
+	}
+
+}
@@ -0,0 +1,444 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import ca.burdee.object.contact.Contact;
+
+/**
+ * An in-memory index for searching {@link Contact}s by name and address.
+ * Matches are ranked in two tiers:
+ * <ol>
+ * <li>{@link Contact}s whose name, address, or a word of the name starts
+ * with the query, in alphabetical order of the matching term. An exact match
+ * comes before any longer term with the same prefix.</li>
+ * <li>{@link Contact}s whose name or address only contains the query
+ * somewhere else.</li>
+ * </ol>
+ * The first tier is found by a range scan of a sorted map of terms, and the
+ * second from the trigram posting of the query with the fewest entries, so a
+ * query only visits the {@link Contact}s it returns plus part of that
+ * posting. Both stop as soon as enough matches have been found.
+ * <p>
+ * Each indexed {@link Contact} occupies a slot, and the trigram postings are
+ * arrays of slots rather than sets of {@link Contact}s, which keeps the index
+ * small for a large roster. Removing a {@link Contact} frees its slot without
+ * touching the postings. The postings may then name freed or reused slots,
+ * so every candidate is checked against the query before it is returned, and
+ * the postings are rebuilt once they hold more stale slots than live ones.
+ * <p>
+ * Searching and updating may happen on different threads. Searches share a
+ * read lock, and updates take the write lock.
+ */
+final class ContactSearchIndex {
+
+	/**
+	 * The length of the n-grams that substring matches are found by.
+	 */
+	private static final int GRAM_LENGTH = 3;
+
+	/**
+	 * Splits a name or an address into words.
+	 */
+	private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	/**
+	 * The number of stale slots the postings may hold before they are
+	 * rebuilt, regardless of the number of live ones.
+	 */
+	private static final int MIN_STALE_SLOTS = 4096;
+
+	/**
+	 * Every term of every indexed {@link Contact}, in alphabetical order, with
+	 * the {@link Contact} that has it, or a {@link Set} of {@link Contact}s in
+	 * the order they were indexed if more than one has it. A term is only
+	 * kept once however many {@link Contact}s share it, and the full name and
+	 * address are the same {@link String}s as in their {@link Entry}.
+	 * 
+	 * @see #addTerm(String, Contact)
+	 * @see #removeTerm(String, Contact)
+	 */
+	private final TreeMap<String, Object> terms = new TreeMap<String, Object>();
+
+	/**
+	 * The slots of the indexed {@link Contact}s that contain each trigram in
+	 * their name or address.
+	 */
+	private final Map<String, Posting> grams = new HashMap<String, Posting>();
+
+	/**
+	 * What each indexed {@link Contact} was indexed under, so that it can be
+	 * removed again after its name or address has changed.
+	 */
+	private final Map<Contact, Entry> entries = new IdentityHashMap<Contact, Entry>();
+
+	/**
+	 * The {@link Entry} in each slot, or null if the slot is free.
+	 */
+	private Entry[] slots = new Entry[16];
+
+	/**
+	 * The free slots below {@link #slotCount}.
+	 */
+	private final Posting freeSlots = new Posting();
+
+	/**
+	 * The number of slots that have been used.
+	 */
+	private int slotCount;
+
+	/**
+	 * The number of entries in the postings that belong to a current
+	 * {@link Entry}.
+	 */
+	private int liveEntries;
+
+	/**
+	 * The number of entries in the postings that belong to a removed
+	 * {@link Entry}.
+	 */
+	private int staleEntries;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Adds a {@link Contact} to the index, or updates it if its name or
+	 * address has changed since it was added.
+	 * 
+	 * @param contact
+	 *            The {@link Contact} to index.
+	 */
+	void add(Contact contact) {
+		Entry entry = new Entry(contact);
+		lock.writeLock().lock();
+		try {
+			Entry oldEntry = entries.put(contact, entry);
+			if (oldEntry != null) {
+				unindex(oldEntry);
+			}
+			
+			if (freeSlots.size > 0) {
+				entry.slot = freeSlots.slots[--freeSlots.size];
+			} else {
+				if (slotCount == slots.length) {
+					slots = Arrays.copyOf(slots, slotCount * 2);
+				}
+				entry.slot = slotCount++;
+			}
+			slots[entry.slot] = entry;
+			
+			for (String term : entry.getTerms()) {
+				addTerm(term, contact);
+			}
+			addToPostings(entry);
+			rebuildIfStale();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a {@link Contact} from the index. Nothing happens if it is not
+	 * indexed.
+	 * 
+	 * @param contact
+	 *            The {@link Contact} to remove.
+	 */
+	void remove(Contact contact) {
+		lock.writeLock().lock();
+		try {
+			Entry entry = entries.remove(contact);
+			if (entry != null) {
+				unindex(entry);
+				rebuildIfStale();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the terms of an {@link Entry} and frees its slot. Its entries
+	 * in the postings become stale. The write lock must be held.
+	 */
+	private void unindex(Entry entry) {
+		for (String term : entry.getTerms()) {
+			removeTerm(term, entry.contact);
+		}
+		slots[entry.slot] = null;
+		freeSlots.add(entry.slot);
+		liveEntries -= entry.gramCount;
+		staleEntries += entry.gramCount;
+	}
+
+	/**
+	 * Adds a {@link Contact} to the {@link Contact}s that have a term. The
+	 * write lock must be held.
+	 */
+	@SuppressWarnings("unchecked")
+	private void addTerm(String term, Contact contact) {
+		Object value = terms.get(term);
+		if (value == null) {
+			terms.put(term, contact);
+		} else if (value instanceof Contact) {
+			Set<Contact> contacts = new LinkedHashSet<Contact>(4);
+			contacts.add((Contact) value);
+			contacts.add(contact);
+			terms.put(term, contacts);
+		} else {
+			((Set<Contact>) value).add(contact);
+		}
+	}
+
+	/**
+	 * Removes a {@link Contact} from the {@link Contact}s that have a term.
+	 * The write lock must be held.
+	 */
+	@SuppressWarnings("unchecked")
+	private void removeTerm(String term, Contact contact) {
+		Object value = terms.get(term);
+		if (value == contact) {
+			terms.remove(term);
+		} else if (value instanceof Set<?>) {
+			Set<Contact> contacts = (Set<Contact>) value;
+			contacts.remove(contact);
+			if (contacts.size() == 1) {
+				terms.put(term, contacts.iterator().next());
+			}
+		}
+	}
+
+	/**
+	 * Adds the slot of an {@link Entry} to the postings of its trigrams. The
+	 * write lock must be held.
+	 */
+	private void addToPostings(Entry entry) {
+		Set<String> entryGrams = entry.getGrams();
+		for (String gram : entryGrams) {
+			Posting posting = grams.get(gram);
+			if (posting == null) {
+				posting = new Posting();
+				grams.put(gram, posting);
+			}
+			posting.add(entry.slot);
+		}
+		entry.gramCount = entryGrams.size();
+		liveEntries += entry.gramCount;
+	}
+
+	/**
+	 * Rebuilds the postings from the current entries if they hold more stale
+	 * slots than live ones. The write lock must be held.
+	 */
+	private void rebuildIfStale() {
+		if (staleEntries < MIN_STALE_SLOTS || staleEntries < liveEntries) {
+			return;
+		}
+		grams.clear();
+		liveEntries = 0;
+		staleEntries = 0;
+		for (Entry entry : entries.values()) {
+			addToPostings(entry);
+		}
+	}
+
+	/**
+	 * Finds the {@link Contact}s whose name or address matches a query,
+	 * ignoring case.
+	 * 
+	 * @param query
+	 *            The text to search for.
+	 * @param limit
+	 *            The maximum number of {@link Contact}s to return.
+	 * @return The matching {@link Contact}s, best match first.
+	 */
+	List<Contact> search(String query, int limit) {
+		String normalized = normalize(query);
+		if (normalized.length() == 0 || limit <= 0) {
+			return Collections.emptyList();
+		}
+		
+		Set<Contact> matches = new LinkedHashSet<Contact>();
+		lock.readLock().lock();
+		try {
+			for (Map.Entry<String, Object> term : terms.tailMap(normalized).entrySet()) {
+				if (matches.size() >= limit || !term.getKey().startsWith(normalized)) {
+					break;
+				}
+				if (term.getValue() instanceof Contact) {
+					matches.add((Contact) term.getValue());
+				} else {
+					for (Object contact : (Set<?>) term.getValue()) {
+						if (matches.size() >= limit) {
+							break;
+						}
+						matches.add((Contact) contact);
+					}
+				}
+			}
+			
+			Posting candidates = matches.size() < limit && normalized.length() >= GRAM_LENGTH 
+					? getCandidates(normalized) : null;
+			if (candidates != null) {
+				for (int i = 0; i < candidates.size && matches.size() < limit; i++) {
+					Entry entry = slots[candidates.slots[i]];
+					if (entry != null && entry.contains(normalized)) {
+						matches.add(entry.contact);
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return new ArrayList<Contact>(matches);
+	}
+
+	/**
+	 * Gets the trigram posting of a query with the fewest entries, which holds
+	 * the slot of every {@link Contact} that may contain it. The read lock
+	 * must be held.
+	 * 
+	 * @return The {@link Posting}, or null if no {@link Contact} can contain
+	 *         the query.
+	 */
+	private Posting getCandidates(String query) {
+		Posting smallest = null;
+		for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+			Posting posting = grams.get(query.substring(i, i + GRAM_LENGTH));
+			if (posting == null) {
+				return null;
+			} else if (smallest == null || posting.size < smallest.size) {
+				smallest = posting;
+			}
+		}
+		return smallest;
+	}
+
+	/**
+	 * Normalizes text for indexing and searching.
+	 */
+	private static String normalize(String text) {
+		return text == null ? "" : text.trim().toLowerCase();
+	}
+
+	/**
+	 * A growable array of slots.
+	 */
+	private static final class Posting {
+
+		private int[] slots = new int[4];
+
+		private int size;
+
+		private void add(int slot) {
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+			}
+			slots[size++] = slot;
+		}
+
+	}
+
+	/**
+	 * The normalized name and address of an indexed {@link Contact}. An
+	 * {@link Entry} is kept for every indexed {@link Contact}, so it holds as
+	 * little as possible; its terms and trigrams are worked out again when
+	 * they are needed.
+	 */
+	private static final class Entry {
+
+		private final Contact contact;
+
+		private final String name;
+
+		private final String address;
+
+		/**
+		 * The number of distinct trigrams of the name and the address.
+		 */
+		private int gramCount;
+
+		/**
+		 * The slot of this {@link Entry} in {@link ContactSearchIndex#slots}.
+		 */
+		private int slot;
+
+		private Entry(Contact contact) {
+			this.contact = contact;
+			name = normalize(contact.getName());
+			address = normalize(contact.getAddress());
+		}
+
+		/**
+		 * Gets the terms this {@link Entry} is indexed under in
+		 * {@link ContactSearchIndex#terms}: the full name, the full address,
+		 * and each word of the name but the first, which the full name
+		 * already covers.
+		 */
+		private Set<String> getTerms() {
+			Set<String> terms = new HashSet<String>();
+			if (name.length() > 0) {
+				terms.add(name);
+				String[] words = WORD_SEPARATOR.split(name);
+				for (int i = 1; i < words.length; i++) {
+					if (words[i].length() > 0) {
+						terms.add(words[i]);
+					}
+				}
+			}
+			if (address.length() > 0) {
+				terms.add(address);
+			}
+			return terms;
+		}
+
+		/**
+		 * Gets every trigram of the name and the address.
+		 */
+		private Set<String> getGrams() {
+			Set<String> grams = new HashSet<String>();
+			for (String text : new String[] { name, address }) {
+				for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+					grams.add(text.substring(i, i + GRAM_LENGTH));
+				}
+			}
+			return grams;
+		}
+
+		private boolean contains(String query) {
+			return name.contains(query) || address.contains(query);
+		}
+
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default {@link BurdeeIdGenerator}. Identifiers are taken from a counter,
+ * so generating one costs a single atomic increment and never blocks, unlike
+ * random UUIDs which go through {@link java.security.SecureRandom}. The
+ * counter starts at the current time in milliseconds shifted left by 16 bits,
+ * which keeps the identifiers of one run from overlapping those of earlier
+ * runs unless more than 65536 objects are created per millisecond on average.
+ */
+public class SequentialIdGenerator implements BurdeeIdGenerator {
+
+	/**
+	 * The last identifier that was generated.
+	 */
+	private final AtomicLong lastId = new AtomicLong(System.currentTimeMillis() << 16);
+
+	@Override
+	public long nextId() {
+		return lastId.incrementAndGet();
+	}
+
+}
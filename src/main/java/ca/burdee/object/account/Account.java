@@ -18,19 +18,36 @@
 
 package ca.burdee.object.account;
 
-import java.beans.PropertyChangeEvent;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-import ca.burdee.object.AbstractBurdeeListener;
 import ca.burdee.object.AbstractBurdeeObject;
-import ca.burdee.object.BurdeeListener;
 import ca.burdee.object.BurdeeObject;
+import ca.burdee.object.BurdeeProperty;
+import ca.burdee.object.BurdeePropertyListener;
 import ca.burdee.object.BurdeeRoot;
 import ca.burdee.object.contact.Contact;
 import ca.burdee.object.contact.ContactCategory;
 import ca.burdee.object.contact.Conversation;
+import ca.burdee.object.contact.Status;
+import ca.burdee.object.util.CompositeList;
 
 /**
  * This {@link Account} class represents an abstract instant messaging service
@@ -38,26 +55,62 @@ import ca.burdee.object.contact.Conversation;
  * a service, and have contacts / contact categories.
  */
 public abstract class Account extends AbstractBurdeeObject {
-	
+
+	private static final Logger logger = Logger.getLogger(Account.class.getName());
+
 	/**
-	 * The {@link List} of {@link Contact}s that this {@link Account} can chat
-	 * with.
+	 * The number of threads that reconnect {@link Account}s that lost their
+	 * connection.
 	 */
-	private List<Contact> contacts = new ArrayList<Contact>();
+	private static final int RECONNECTION_THREADS = 4;
 
 	/**
-	 * The {@link List} of {@link ContactCategory}s that this {@link Account}'s
-	 * {@link Contact}s can be contained under. Note that multiple
-	 * {@link ContactCategory}s can contain the same {@link Contact}.
+	 * Runs the attempts of every {@link Account} to reconnect after it lost
+	 * its connection.
 	 */
-	private List<ContactCategory> categories = new ArrayList<ContactCategory>();
+	private static final ScheduledExecutorService reconnectionExecutor = 
+		createReconnectionExecutor();
 
 	/**
-	 * The {@link List} of {@link Conversation}s that this {@link Account} is
-	 * currently having.
+	 * The password property of an {@link Account}.
+	 * 
+	 * @see #getPassword()
 	 */
-	private List<Conversation> conversations = new ArrayList<Conversation>();
+	public static final BurdeeProperty<String> PASSWORD = 
+		BurdeeProperty.create(Account.class, "password", String.class);
 
+	/**
+	 * The connect automatically property of an {@link Account}.
+	 * 
+	 * @see #isConnectAutomatically()
+	 */
+	public static final BurdeeProperty<Boolean> CONNECT_AUTOMATICALLY = 
+		BurdeeProperty.create(Account.class, "connectAutomatically", Boolean.class);
+
+	/**
+	 * The populated property of an {@link Account}.
+	 * 
+	 * @see #isPopulated()
+	 */
+	public static final BurdeeProperty<Boolean> POPULATED = 
+		BurdeeProperty.create(Account.class, "populated", Boolean.class);
+
+	/**
+	 * The connection property of an {@link Account}. Its value is the protocol
+	 * specific connection object, which is set once the {@link Account} has
+	 * connected and cleared once it has disconnected.
+	 */
+	public static final BurdeeProperty<Object> CONNECTION = 
+		BurdeeProperty.create(Account.class, "connection", Object.class);
+
+	/**
+	 * The connection state property of an {@link Account}.
+	 * 
+	 * @see #getConnectionState()
+	 */
+	public static final BurdeeProperty<ConnectionState> CONNECTION_STATE = 
+		BurdeeProperty.create(Account.class, "connectionState", ConnectionState.class);
+	
 	/**
 	 * @see #getPassword()
 	 */
@@ -74,14 +127,107 @@ public abstract class Account extends AbstractBurdeeObject {
 	protected boolean populated;
 
 	/**
-	 * This {@link BurdeeListener} populates this {@link Account} after a
+	 * @see #getConnectionState()
+	 */
+	private final AtomicReference<ConnectionState> connectionState = 
+		new AtomicReference<ConnectionState>(ConnectionState.DISCONNECTED);
+
+	/**
+	 * @see #getReconnectionBackoff()
+	 */
+	private volatile ReconnectionBackoff reconnectionBackoff = ReconnectionBackoff.DEFAULT;
+
+	/**
+	 * The next attempt to reconnect, or null if this {@link Account} is not
+	 * reconnecting. It stays set while the attempt runs. This is guarded by
+	 * the lock of {@link #connectionState}.
+	 * 
+	 * @see #isReconnecting()
+	 */
+	private ScheduledFuture<?> reconnection;
+
+	/**
+	 * The number of attempts to reconnect that have been made since the
+	 * connection was lost. This is guarded by the lock of
+	 * {@link #connectionState}.
+	 */
+	private int reconnectionAttempts;
+
+	/**
+	 * The live read-only view of all of the children of this {@link Account},
+	 * created the first time it is needed.
+	 * 
+	 * @see #getChildren()
+	 */
+	private volatile List<BurdeeObject> children;
+
+	/**
+	 * The child {@link Contact}s of this {@link Account}, keyed by address. If
+	 * more than one {@link Contact} has the same address, the one that was
+	 * indexed first is kept, and the others wait in
+	 * {@link #duplicateAddresses}. {@link Contact}s without an address are not
+	 * indexed. Changes are made while holding the lock of
+	 * {@link #duplicateAddresses}.
+	 * 
+	 * @see #findContactByAddress(String)
+	 */
+	private final ConcurrentMap<String, Contact> contactsByAddress = 
+		new ConcurrentHashMap<String, Contact>();
+
+	/**
+	 * The child {@link Contact}s that have the same address as the one in
+	 * {@link #contactsByAddress}, keyed by address, in the order they were
+	 * indexed. An address is only in here while it has duplicates, so that
+	 * the {@link Contact} that takes the place of a removed one is found
+	 * without going through all of the children.
+	 */
+	private final Map<String, List<Contact>> duplicateAddresses = 
+		new HashMap<String, List<Contact>>();
+
+	/**
+	 * The child {@link Contact}s of this {@link Account}, bucketed by
+	 * {@link Status}. Every {@link Status} has a bucket from the start, so
+	 * the map itself is never modified. {@link Contact}s without a
+	 * {@link Status} are not in any bucket. The buckets are guarded by the
+	 * map, and are identity sets, which keep their entries in a flat table
+	 * and close up the gap left by a removal, so that moving a
+	 * {@link Contact} from one bucket to another allocates nothing once the
+	 * buckets have grown.
+	 * 
+	 * @see #getContacts(Status)
+	 * @see #getContactCount(Status)
+	 */
+	private final Map<Status, Set<Contact>> contactsByStatus = createStatusBuckets();
+
+	/**
+	 * The child {@link Conversation}s of this {@link Account}, keyed by the
+	 * {@link Set} of {@link Contact}s taking part in them. If more than one
+	 * {@link Conversation} has the same participants, the one that was added
+	 * first is kept. Changes are made while holding the lock of
+	 * {@link #conversationKeys}.
+	 * 
+	 * @see #findConversation(Collection)
+	 */
+	private final ConcurrentMap<Set<Contact>, Conversation> conversationsByParticipants = 
+		new ConcurrentHashMap<Set<Contact>, Conversation>();
+
+	/**
+	 * The key that each child {@link Conversation} was indexed under in
+	 * {@link #conversationsByParticipants}, so that it can be removed again
+	 * after its participants have changed.
+	 */
+	private final Map<Conversation, Set<Contact>> conversationKeys = 
+		new IdentityHashMap<Conversation, Set<Contact>>();
+
+	/**
+	 * This {@link BurdeePropertyListener} populates this {@link Account} after a
 	 * connection has been established.
 	 */
-	private final BurdeeListener connectionListener = new AbstractBurdeeListener() {
-		public void propertyChange(PropertyChangeEvent evt) {
-			if (evt.getPropertyName().equals("connection")) {
-				((Account) evt.getSource()).populate();
-			}
+	private final BurdeePropertyListener connectionListener = new BurdeePropertyListener() {
+		@Override
+		public void propertyChanged(BurdeeObject source, BurdeeProperty<?> property,
+				Object oldValue, Object newValue) {
+			((Account) source).populate();
 		}
 	};
 	
@@ -107,45 +253,210 @@ public abstract class Account extends AbstractBurdeeObject {
 		attachConnectionListener();
 	}
 	
+	/**
+	 * Gets the allowed child types. The {@link Contact}s that this
+	 * {@link Account} can chat with come first, followed by the
+	 * {@link ContactCategory}s that the {@link Contact}s can be contained under
+	 * (multiple {@link ContactCategory}s can contain the same {@link Contact}),
+	 * followed by the {@link Conversation}s that this {@link Account} is
+	 * currently having.
+	 */
 	@Override
-	protected void addChildImpl(BurdeeObject child, int index) {
-		if (child instanceof Contact) {
-			contacts.add(index, (Contact) child);
-		} else if (child instanceof ContactCategory) {
-			categories.add(index, (ContactCategory) child);
-		} else if (child instanceof Conversation) {
-			conversations.add(index, (Conversation) child);
+	public List<Class<? extends BurdeeObject>> getAllowedChildTypes() {
+		List<Class<? extends BurdeeObject>> types = new ArrayList<Class<? extends BurdeeObject>>();
+		types.add(Contact.class);
+		types.add(ContactCategory.class);
+		types.add(Conversation.class);
+		return Collections.unmodifiableList(types);
+	}
+
+	/**
+	 * Gets all of the children, in the order of
+	 * {@link #getAllowedChildTypes()}. The returned {@link List} is a live
+	 * read-only view over the children of each type rather than a copy, so
+	 * this does not allocate, and its size and random access take constant
+	 * time.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<? extends BurdeeObject> getChildren() {
+		// Racing threads may each create a view, but the views are
+		// equivalent, so it does not matter which one is kept.
+		List<BurdeeObject> children = this.children;
+		if (children == null) {
+			children = new CompositeList<BurdeeObject>(
+					getChildren(Contact.class), 
+					getChildren(ContactCategory.class), 
+					getChildren(Conversation.class));
+			this.children = children;
 		}
+		return children;
 	}
 	
+	/**
+	 * Adds the child and, if it is a {@link Contact}, indexes it by address.
+	 */
 	@Override
-	protected boolean removeChildImpl(BurdeeObject child) {
+	protected void addChildImpl(BurdeeObject child, int index) {
+		super.addChildImpl(child, index);
 		if (child instanceof Contact) {
-			return contacts.remove(child);
-		} else if (child instanceof ContactCategory) {
-			return categories.remove(child);
+			Contact contact = (Contact) child;
+			indexContact(contact, contact.getAddress());
+			moveContact(contact, null, contact.getStatus());
 		} else if (child instanceof Conversation) {
-			return conversations.remove(child);
+			Conversation conversation = (Conversation) child;
+			indexConversation(conversation, conversation.getContacts());
 		}
-		return false;
 	}
 
+	/**
+	 * Removes the child and, if it is a {@link Contact}, removes it from the
+	 * address index.
+	 */
 	@Override
-	public List<Class<? extends BurdeeObject>> getAllowedChildTypes() {
-		List<Class<? extends BurdeeObject>> types = new ArrayList<Class<? extends BurdeeObject>>();
-		types.add(Contact.class);
-		types.add(ContactCategory.class);
-		types.add(Conversation.class);
-		return Collections.unmodifiableList(types);
+	protected boolean removeChildImpl(BurdeeObject child) {
+		boolean removed = super.removeChildImpl(child);
+		if (removed && child instanceof Contact) {
+			Contact contact = (Contact) child;
+			unindexContact(contact, contact.getAddress());
+			moveContact(contact, contact.getStatus(), null);
+		} else if (removed && child instanceof Conversation) {
+			unindexConversation((Conversation) child);
+		}
+		return removed;
 	}
 
+	/**
+	 * Keeps the indexes of the child {@link Contact}s and {@link Conversation}s
+	 * up to date: {@link #contactsByAddress} when the address of a
+	 * {@link Contact} changes, {@link #contactsByStatus} when its
+	 * {@link Status} changes, and {@link #conversationsByParticipants} when a
+	 * {@link Contact} joins or leaves a {@link Conversation}.
+	 */
 	@Override
-	public List<? extends BurdeeObject> getChildren() {
-		List<BurdeeObject> children = new ArrayList<BurdeeObject>();
-		children.addAll(contacts);
-		children.addAll(categories);
-		children.addAll(conversations);
-		return Collections.unmodifiableList(children);
+	protected void childPropertyChanged(BurdeeObject child, BurdeeProperty<?> property, 
+			Object oldValue, Object newValue) {
+		if (property == Contact.ADDRESS) {
+			Contact contact = (Contact) child;
+			unindexContact(contact, (String) oldValue);
+			indexContact(contact, (String) newValue);
+		} else if (property == Contact.STATUS) {
+			moveContact((Contact) child, (Status) oldValue, (Status) newValue);
+		} else if (property == Conversation.CONTACTS) {
+			Conversation conversation = (Conversation) child;
+			unindexConversation(conversation);
+			indexConversation(conversation, Conversation.CONTACTS.getType().cast(newValue));
+		}
+	}
+
+	/**
+	 * Indexes a child {@link Conversation} under its participants, unless
+	 * another {@link Conversation} already has the same participants.
+	 */
+	private void indexConversation(Conversation conversation, List<Contact> participants) {
+		Set<Contact> key = new HashSet<Contact>(participants);
+		synchronized(conversationKeys) {
+			conversationKeys.put(conversation, key);
+			conversationsByParticipants.putIfAbsent(key, conversation);
+		}
+	}
+
+	/**
+	 * Removes a {@link Conversation} from the index. If another child
+	 * {@link Conversation} has the same participants, it takes its place.
+	 */
+	private void unindexConversation(Conversation conversation) {
+		synchronized(conversationKeys) {
+			Set<Contact> key = conversationKeys.remove(conversation);
+			if (key == null || !conversationsByParticipants.remove(key, conversation)) {
+				return;
+			}
+			for (Map.Entry<Conversation, Set<Contact>> entry : conversationKeys.entrySet()) {
+				if (entry.getValue().equals(key)) {
+					conversationsByParticipants.putIfAbsent(key, entry.getKey());
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves a child {@link Contact} from the bucket of one {@link Status} to
+	 * that of another.
+	 * 
+	 * @param contact
+	 *            The {@link Contact} to move.
+	 * @param oldStatus
+	 *            The {@link Status} to remove the {@link Contact} from, or
+	 *            null if it is not in any bucket.
+	 * @param newStatus
+	 *            The {@link Status} to add the {@link Contact} to, or null to
+	 *            leave it out of the buckets.
+	 */
+	private void moveContact(Contact contact, Status oldStatus, Status newStatus) {
+		synchronized(contactsByStatus) {
+			if (oldStatus != null) {
+				contactsByStatus.get(oldStatus).remove(contact);
+			}
+			if (newStatus != null) {
+				contactsByStatus.get(newStatus).add(contact);
+			}
+		}
+	}
+
+	/**
+	 * Creates an empty bucket of {@link Contact}s for every {@link Status}.
+	 */
+	private static Map<Status, Set<Contact>> createStatusBuckets() {
+		Map<Status, Set<Contact>> buckets = new EnumMap<Status, Set<Contact>>(Status.class);
+		for (Status status : Status.values()) {
+			buckets.put(status, Collections.newSetFromMap(new IdentityHashMap<Contact, Boolean>()));
+		}
+		return buckets;
+	}
+
+	/**
+	 * Indexes a child {@link Contact} under an address. If another
+	 * {@link Contact} already has that address, it is kept as a duplicate.
+	 */
+	private void indexContact(Contact contact, String address) {
+		if (address == null) {
+			return;
+		}
+		synchronized(duplicateAddresses) {
+			if (contactsByAddress.putIfAbsent(address, contact) != null) {
+				List<Contact> duplicates = duplicateAddresses.get(address);
+				if (duplicates == null) {
+					duplicates = new ArrayList<Contact>(1);
+					duplicateAddresses.put(address, duplicates);
+				}
+				duplicates.add(contact);
+			}
+		}
+	}
+
+	/**
+	 * Removes a {@link Contact} from the index under an address. If another
+	 * child {@link Contact} has the same address, the first of its duplicates
+	 * takes its place.
+	 */
+	private void unindexContact(Contact contact, String address) {
+		if (address == null) {
+			return;
+		}
+		synchronized(duplicateAddresses) {
+			List<Contact> duplicates = duplicateAddresses.get(address);
+			if (contactsByAddress.remove(address, contact)) {
+				if (duplicates != null) {
+					contactsByAddress.put(address, duplicates.remove(0));
+				}
+			} else if (duplicates != null) {
+				duplicates.remove(contact);
+			}
+			if (duplicates != null && duplicates.isEmpty()) {
+				duplicateAddresses.remove(address);
+			}
+		}
 	}
 	
 	@Override
@@ -181,7 +492,7 @@ public abstract class Account extends AbstractBurdeeObject {
 	public void setPassword(String password) {
 		String oldPassword = this.password;
 		this.password = password;
-		firePropertyChanged("password", oldPassword, password);
+		firePropertyChanged(PASSWORD, oldPassword, password);
 	}
 
 	/**
@@ -206,7 +517,7 @@ public abstract class Account extends AbstractBurdeeObject {
 	public void setConnectAutomatically(boolean connectAutomatically) {
 		boolean oldConnectAutomatically = this.connectAutomatically;
 		this.connectAutomatically = connectAutomatically;
-		firePropertyChanged("connectAutomatically", oldConnectAutomatically, connectAutomatically);
+		firePropertyChanged(CONNECT_AUTOMATICALLY, oldConnectAutomatically, connectAutomatically);
 	}
 
 	/**
@@ -244,6 +555,203 @@ public abstract class Account extends AbstractBurdeeObject {
 	 */
 	public abstract void populate();
 
+	/**
+	 * Gets the stage of the connection of this {@link Account} to its IM
+	 * service. Changes are fired as {@link #CONNECTION_STATE} property
+	 * changes.
+	 * 
+	 * @return The {@link ConnectionState} of this {@link Account}.
+	 */
+	public ConnectionState getConnectionState() {
+		return connectionState.get();
+	}
+
+	/**
+	 * Sets the stage of the connection of this {@link Account}. Extending
+	 * classes call this as they connect and disconnect. Reaching
+	 * {@link ConnectionState#CONNECTED} ends reconnecting.
+	 * 
+	 * @param state
+	 *            The new {@link ConnectionState}.
+	 */
+	protected void setConnectionState(ConnectionState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("The connection state of an account cannot be null.");
+		}
+		ConnectionState oldState;
+		synchronized (connectionState) {
+			oldState = swapConnectionState(state);
+		}
+		firePropertyChanged(CONNECTION_STATE, oldState, state);
+	}
+
+	/**
+	 * Changes the {@link ConnectionState} without firing the change, which
+	 * the caller must do once it has released the lock of
+	 * {@link #connectionState}, so that no listener runs while it is held.
+	 * This must be called while holding that lock.
+	 * 
+	 * @param state
+	 *            The new {@link ConnectionState}.
+	 * @return The old {@link ConnectionState}.
+	 */
+	private ConnectionState swapConnectionState(ConnectionState state) {
+		if (state == ConnectionState.CONNECTED) {
+			reconnection = null;
+		}
+		return connectionState.getAndSet(state);
+	}
+
+	/**
+	 * Gets the {@link ReconnectionBackoff} that decides when this
+	 * {@link Account} tries to reconnect after it lost its connection.
+	 * 
+	 * @return The {@link ReconnectionBackoff} of this {@link Account}.
+	 */
+	public ReconnectionBackoff getReconnectionBackoff() {
+		return reconnectionBackoff;
+	}
+
+	/**
+	 * Sets the {@link ReconnectionBackoff} that decides when this
+	 * {@link Account} tries to reconnect after it lost its connection. It
+	 * applies from the next attempt on.
+	 * 
+	 * @param reconnectionBackoff
+	 *            The new {@link ReconnectionBackoff}.
+	 */
+	public void setReconnectionBackoff(ReconnectionBackoff reconnectionBackoff) {
+		if (reconnectionBackoff == null) {
+			throw new IllegalArgumentException("The reconnection backoff of an account cannot be null.");
+		}
+		this.reconnectionBackoff = reconnectionBackoff;
+	}
+
+	/**
+	 * Determines if this {@link Account} is trying to reconnect after it lost
+	 * its connection, either waiting for the next attempt or making it.
+	 * 
+	 * @return true if this {@link Account} is reconnecting.
+	 */
+	public boolean isReconnecting() {
+		synchronized (connectionState) {
+			return reconnection != null;
+		}
+	}
+
+	/**
+	 * Starts reconnecting this {@link Account}. Extending classes call this
+	 * when the connection to the IM service is closed by an error rather than
+	 * by {@link #disconnect()}. Each attempt calls {@link #connect()} after a
+	 * delay decided by the {@link ReconnectionBackoff}, until one succeeds
+	 * and sets the {@link ConnectionState} to
+	 * {@link ConnectionState#CONNECTED}, the attempts run out and it becomes
+	 * {@link ConnectionState#FAILED}, or {@link #cancelReconnection()} is
+	 * called.
+	 * 
+	 * @param cause
+	 *            The error that closed the connection.
+	 */
+	protected void connectionLost(Exception cause) {
+		logger.log(Level.INFO, "Lost the connection of account " + getName() + 
+				"; reconnecting.", cause);
+		ConnectionState oldState;
+		ConnectionState state;
+		synchronized (connectionState) {
+			if (reconnection != null) {
+				return;
+			}
+			reconnectionAttempts = 0;
+			state = scheduleReconnection();
+			oldState = swapConnectionState(state);
+		}
+		firePropertyChanged(CONNECTION_STATE, oldState, state);
+	}
+
+	/**
+	 * Stops reconnecting this {@link Account}. An attempt that is already
+	 * connecting is not interrupted, but no further attempt is made.
+	 * Extending classes call this from {@link #disconnect()} while holding
+	 * the lock of this {@link Account}, which their {@link #connect()} must
+	 * hold as well. An attempt checks that reconnecting has not been
+	 * cancelled while holding that lock before it connects, so no attempt
+	 * connects once {@link #disconnect()} has returned.
+	 */
+	protected void cancelReconnection() {
+		synchronized (connectionState) {
+			if (reconnection != null) {
+				reconnection.cancel(false);
+				reconnection = null;
+			}
+		}
+	}
+
+	/**
+	 * Schedules the next attempt to reconnect, or gives up if the
+	 * {@link ReconnectionBackoff} allows no more attempts. This must be
+	 * called while holding the lock of {@link #connectionState}, and the
+	 * returned {@link ConnectionState} must be set with
+	 * {@link #swapConnectionState(ConnectionState)} before that lock is
+	 * released, so that {@link #cancelReconnection()} cannot come between the
+	 * decision and the change of the {@link ConnectionState}.
+	 * 
+	 * @return {@link ConnectionState#RECONNECTING} if another attempt was
+	 *         scheduled, or {@link ConnectionState#FAILED} if not.
+	 */
+	private ConnectionState scheduleReconnection() {
+		ReconnectionBackoff backoff = reconnectionBackoff;
+		if (reconnectionAttempts < backoff.getMaxAttempts()) {
+			long delay = backoff.getDelay(reconnectionAttempts++);
+			reconnection = reconnectionExecutor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					reconnect();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+			return ConnectionState.RECONNECTING;
+		} else {
+			reconnection = null;
+			return ConnectionState.FAILED;
+		}
+	}
+
+	/**
+	 * Makes an attempt to reconnect, and schedules the next one if it fails
+	 * and reconnecting has not been cancelled in the meantime. The attempt
+	 * is given up if reconnecting was cancelled after it had started but
+	 * before it got the lock of this {@link Account}.
+	 * 
+	 * @see #cancelReconnection()
+	 */
+	private void reconnect() {
+		FailedConnectionException failure = null;
+		synchronized (this) {
+			if (!isReconnecting()) {
+				return;
+			}
+			try {
+				connect();
+			} catch (FailedConnectionException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = new FailedConnectionException(e);
+			}
+		}
+		if (failure != null) {
+			logger.log(Level.FINE, "Unable to reconnect account " + getName() + ".", failure);
+			ConnectionState oldState;
+			ConnectionState state;
+			synchronized (connectionState) {
+				if (reconnection == null) {
+					return;
+				}
+				state = scheduleReconnection();
+				oldState = swapConnectionState(state);
+			}
+			firePropertyChanged(CONNECTION_STATE, oldState, state);
+		}
+	}
+
 	/**
 	 * Updates all of the properties from another {@link Account} object except
 	 * UUID. Note that extending Account classes should override this method
@@ -271,7 +779,7 @@ public abstract class Account extends AbstractBurdeeObject {
 	 * @return The matching {@link ContactCategory}.
 	 */
 	public ContactCategory findContactCategoryByName(String name) {
-		for (ContactCategory category : categories) {
+		for (ContactCategory category : getChildren(ContactCategory.class)) {
 			if (category.getName().equals(name)) {
 				return category;
 			}
@@ -279,13 +787,87 @@ public abstract class Account extends AbstractBurdeeObject {
 		return null;
 	}
 
+	/**
+	 * Finds the child {@link Contact} with a given address. The
+	 * {@link Contact}s are indexed by address, so this takes constant time
+	 * regardless of the number of {@link Contact}s.
+	 * 
+	 * @param address
+	 *            The address to search for.
+	 * @return The {@link Contact} with the matching address, or null if one
+	 *         does not exist. If more than one {@link Contact} has the
+	 *         address, the one that was added first.
+	 */
+	public Contact findContactByAddress(String address) {
+		return address == null ? null : contactsByAddress.get(address);
+	}
+
+	/**
+	 * Gets the child {@link Contact}s that have a given {@link Status}. The
+	 * {@link Contact}s are kept in a bucket for each {@link Status}, so this
+	 * does not scan the other {@link Contact}s. The returned {@link List} is
+	 * a copy in no particular order, so it can be iterated while
+	 * {@link Contact}s change their {@link Status}.
+	 * 
+	 * @param status
+	 *            The {@link Status} to get the {@link Contact}s of.
+	 * @return The {@link List} of {@link Contact}s with the {@link Status}.
+	 */
+	public List<Contact> getContacts(Status status) {
+		synchronized(contactsByStatus) {
+			return new ArrayList<Contact>(contactsByStatus.get(status));
+		}
+	}
+
+	/**
+	 * Gets the number of child {@link Contact}s that have a given
+	 * {@link Status}, without scanning the {@link Contact}s.
+	 * 
+	 * @param status
+	 *            The {@link Status} to count the {@link Contact}s of.
+	 * @return The number of {@link Contact}s with the {@link Status}.
+	 */
+	public int getContactCount(Status status) {
+		synchronized(contactsByStatus) {
+			return contactsByStatus.get(status).size();
+		}
+	}
+
+	/**
+	 * Finds the child {@link Conversation} whose participants are exactly the
+	 * given {@link Contact}s, in any order. The {@link Conversation}s are
+	 * indexed by participants, so this takes constant time regardless of the
+	 * number of {@link Conversation}s.
+	 * 
+	 * @param contacts
+	 *            The {@link Contact}s taking part in the {@link Conversation}.
+	 * @return The matching {@link Conversation}, or null if there is none. If
+	 *         more than one {@link Conversation} matches, the one that was
+	 *         added first.
+	 */
+	public Conversation findConversation(Collection<Contact> contacts) {
+		return conversationsByParticipants.get(new HashSet<Contact>(contacts));
+	}
+
+	/**
+	 * Finds the one-to-one {@link Conversation} with a {@link Contact}.
+	 * 
+	 * @param contact
+	 *            The {@link Contact} the {@link Conversation} is with.
+	 * @return The {@link Conversation}, or null if there is none.
+	 * @see #findConversation(Collection)
+	 */
+	public Conversation findConversation(Contact contact) {
+		return conversationsByParticipants.get(Collections.singleton(contact));
+	}
+
 	/**
 	 * Attaches the {@link BurdeeListener} that listens to the connection
 	 * property change and populates the {@link List} of {@link Contact}s on the
 	 * event.
 	 */
 	public void attachConnectionListener() {
-		addBurdeeListener(connectionListener);
+		addPropertyListener(CONNECTION, connectionListener);
 	}
 
 	/**
@@ -294,7 +876,7 @@ public abstract class Account extends AbstractBurdeeObject {
 	 * event.
 	 */
 	public void detachConnectionListener() {
-		removeBurdeeListener(connectionListener);
+		removePropertyListener(CONNECTION, connectionListener);
 	}
 	
 	@Override
@@ -302,6 +884,19 @@ public abstract class Account extends AbstractBurdeeObject {
 		return getName();
 	}
 
+	/**
+	 * Creates the {@link ScheduledExecutorService} that runs the attempts to
+	 * reconnect, with daemon threads that time out when there is nothing to
+	 * reconnect.
+	 */
+	private static ScheduledExecutorService createReconnectionExecutor() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+				RECONNECTION_THREADS, new ConnectionScheduler.NamedThreadFactory("Burdee reconnection"));
+		executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	/**
 	 * Creates a new {@link Conversation} and adds it as a child of this
 	 * {@link Account}.
@@ -0,0 +1,353 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.account;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connects {@link Account}s in the background, several at a time. Each
+ * {@link Account} connects on a thread of a bounded pool, so the handshakes
+ * of different {@link Account}s overlap and connecting all of them takes
+ * about as long as the slowest one rather than the sum of all of them.
+ * <p>
+ * Each attempt has a timeout. When it expires, the attempt is reported to
+ * the {@link ConnectionSchedulerListener}s as timed out and its thread is
+ * interrupted. A connection that still completes afterwards is kept, but it
+ * is not reported again.
+ */
+public class ConnectionScheduler {
+
+	/**
+	 * The default number of {@link Account}s that connect at the same time.
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT = 8;
+
+	/**
+	 * The default time an {@link Account} is given to connect, in
+	 * milliseconds.
+	 */
+	public static final long DEFAULT_TIMEOUT = 30 * 1000;
+
+	/**
+	 * The threads that the {@link Account}s connect on.
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * The thread that expires the attempts that take too long. Like the
+	 * threads of the {@link #executor}, it times out when there is nothing
+	 * to connect, so that an idle {@link ConnectionScheduler} holds no
+	 * thread.
+	 */
+	private final ScheduledThreadPoolExecutor watchdog;
+
+	/**
+	 * The time an {@link Account} is given to connect, in milliseconds.
+	 */
+	private final long timeout;
+
+	/**
+	 * The attempts that have been scheduled and have not finished yet, keyed
+	 * by their {@link Account}. This map also serves as its own lock.
+	 */
+	private final Map<Account, Attempt> attempts = new IdentityHashMap<Account, Attempt>();
+
+	private final CopyOnWriteArrayList<ConnectionSchedulerListener> listeners = 
+		new CopyOnWriteArrayList<ConnectionSchedulerListener>();
+
+	/**
+	 * Creates a new {@link ConnectionScheduler} that connects up to
+	 * {@link #DEFAULT_MAX_CONCURRENT} {@link Account}s at the same time, with
+	 * a timeout of {@link #DEFAULT_TIMEOUT}.
+	 */
+	public ConnectionScheduler() {
+		this(DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a new {@link ConnectionScheduler}.
+	 * 
+	 * @param maxConcurrent
+	 *            The number of {@link Account}s that can connect at the same
+	 *            time. The others wait for a free thread.
+	 * @param timeout
+	 *            The time each {@link Account} is given to connect.
+	 * @param unit
+	 *            The unit of the timeout.
+	 */
+	public ConnectionScheduler(int maxConcurrent, long timeout, TimeUnit unit) {
+		if (maxConcurrent < 1) {
+			throw new IllegalArgumentException("At least one account must be able " +
+					"to connect at a time, not " + maxConcurrent + ".");
+		}
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("The connection timeout must be positive, " +
+					"not " + timeout + ".");
+		}
+		this.timeout = unit.toMillis(timeout);
+		executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), 
+				new NamedThreadFactory("Burdee connection"));
+		executor.allowCoreThreadTimeOut(true);
+		watchdog = new ScheduledThreadPoolExecutor(1, 
+				new NamedThreadFactory("Burdee connection watchdog"));
+		watchdog.setKeepAliveTime(60, TimeUnit.SECONDS);
+		watchdog.allowCoreThreadTimeOut(true);
+		watchdog.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Adds a {@link ConnectionSchedulerListener} to be notified of the
+	 * progress of the connections.
+	 * 
+	 * @param l
+	 *            The {@link ConnectionSchedulerListener} to add.
+	 */
+	public void addConnectionSchedulerListener(ConnectionSchedulerListener l) {
+		listeners.addIfAbsent(l);
+	}
+
+	/**
+	 * Removes a {@link ConnectionSchedulerListener}.
+	 * 
+	 * @param l
+	 *            The {@link ConnectionSchedulerListener} to remove.
+	 */
+	public void removeConnectionSchedulerListener(ConnectionSchedulerListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Schedules an {@link Account} to connect. Nothing is done if the
+	 * {@link Account} is already scheduled.
+	 * 
+	 * @param account
+	 *            The {@link Account} to connect.
+	 * @return true if the {@link Account} was scheduled by this call.
+	 */
+	public boolean schedule(Account account) {
+		if (account == null) {
+			throw new IllegalArgumentException("Cannot schedule a null account to connect.");
+		}
+		Attempt attempt = new Attempt(account);
+		synchronized (attempts) {
+			if (attempts.containsKey(account)) {
+				return false;
+			}
+			attempts.put(account, attempt);
+		}
+		executor.execute(attempt.task);
+		return true;
+	}
+
+	/**
+	 * Schedules each of the given {@link Account}s to connect.
+	 * 
+	 * @param accounts
+	 *            The {@link Account}s to connect.
+	 */
+	public void scheduleAll(Collection<? extends Account> accounts) {
+		for (Account account : accounts) {
+			schedule(account);
+		}
+	}
+
+	/**
+	 * Cancels the attempt to connect an {@link Account}. An attempt that has
+	 * already started is interrupted.
+	 * 
+	 * @param account
+	 *            The {@link Account} to stop connecting.
+	 * @return true if an attempt was cancelled.
+	 */
+	public boolean cancel(Account account) {
+		Attempt attempt;
+		synchronized (attempts) {
+			attempt = attempts.remove(account);
+		}
+		if (attempt == null) {
+			return false;
+		}
+		attempt.finished.set(true);
+		attempt.task.cancel(true);
+		return true;
+	}
+
+	/**
+	 * Determines if an {@link Account} is scheduled to connect or is
+	 * connecting.
+	 * 
+	 * @param account
+	 *            The {@link Account} to check.
+	 * @return true if the {@link Account} has an attempt that has not
+	 *         finished yet.
+	 */
+	public boolean isScheduled(Account account) {
+		synchronized (attempts) {
+			return attempts.containsKey(account);
+		}
+	}
+
+	/**
+	 * Gets the number of {@link Account}s that are scheduled to connect or
+	 * are connecting.
+	 */
+	public int getPendingCount() {
+		synchronized (attempts) {
+			return attempts.size();
+		}
+	}
+
+	/**
+	 * Cancels all attempts and stops the threads of this
+	 * {@link ConnectionScheduler}. No {@link Account} can be scheduled
+	 * afterwards.
+	 */
+	public void shutdown() {
+		synchronized (attempts) {
+			for (Attempt attempt : attempts.values()) {
+				attempt.finished.set(true);
+			}
+			attempts.clear();
+		}
+		executor.shutdownNow();
+		watchdog.shutdownNow();
+	}
+
+	/**
+	 * Ends an attempt. Only the first of the outcome, the timeout and
+	 * {@link #cancel(Account)} ends it.
+	 * 
+	 * @return true if this call ended the attempt.
+	 */
+	private boolean finish(Attempt attempt) {
+		if (!attempt.finished.compareAndSet(false, true)) {
+			return false;
+		}
+		synchronized (attempts) {
+			if (attempts.get(attempt.account) == attempt) {
+				attempts.remove(attempt.account);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A scheduled connection of a single {@link Account}.
+	 */
+	private class Attempt implements Runnable {
+
+		private final Account account;
+
+		/**
+		 * The task that runs this {@link Attempt} on the
+		 * {@link ConnectionScheduler#executor}, and through which it is
+		 * interrupted.
+		 */
+		private final FutureTask<Void> task;
+
+		/**
+		 * Set once the outcome of this {@link Attempt} has been decided.
+		 */
+		private final AtomicBoolean finished = new AtomicBoolean();
+
+		private Attempt(Account account) {
+			this.account = account;
+			task = new FutureTask<Void>(this, null);
+		}
+
+		@Override
+		public void run() {
+			if (finished.get()) {
+				return;
+			}
+			for (ConnectionSchedulerListener l : listeners) {
+				l.connectionStarted(account);
+			}
+			ScheduledFuture<?> expiry = watchdog.schedule(new Runnable() {
+				@Override
+				public void run() {
+					if (finish(Attempt.this)) {
+						task.cancel(true);
+						for (ConnectionSchedulerListener l : listeners) {
+							l.connectionTimedOut(account);
+						}
+					}
+				}
+			}, timeout, TimeUnit.MILLISECONDS);
+			
+			FailedConnectionException failure = null;
+			try {
+				account.connect();
+			} catch (FailedConnectionException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = new FailedConnectionException("Could not connect account " + 
+						account.getName() + ".", e);
+			} finally {
+				expiry.cancel(false);
+			}
+			
+			if (finish(this)) {
+				for (ConnectionSchedulerListener l : listeners) {
+					if (failure == null) {
+						l.connectionSucceeded(account);
+					} else {
+						l.connectionFailed(account, failure);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates numbered daemon threads, so that connecting {@link Account}s
+	 * never keeps the application from exiting.
+	 */
+	static class NamedThreadFactory implements ThreadFactory {
+
+		private final String name;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		NamedThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, name + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
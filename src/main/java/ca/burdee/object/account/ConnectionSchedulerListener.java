@@ -0,0 +1,67 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.account;
+
+import java.util.EventListener;
+
+/**
+ * This {@link EventListener} follows the progress of the {@link Account}s
+ * that a {@link ConnectionScheduler} connects. The events are fired on the
+ * threads of the {@link ConnectionScheduler}, so listeners that update the
+ * UI have to move to the event-dispatching thread themselves.
+ */
+public interface ConnectionSchedulerListener extends EventListener {
+
+	/**
+	 * This event is fired when an {@link Account} starts connecting.
+	 * 
+	 * @param account
+	 *            The {@link Account} that is connecting.
+	 */
+	void connectionStarted(Account account);
+
+	/**
+	 * This event is fired when an {@link Account} has connected.
+	 * 
+	 * @param account
+	 *            The {@link Account} that connected.
+	 */
+	void connectionSucceeded(Account account);
+
+	/**
+	 * This event is fired when an {@link Account} could not connect.
+	 * 
+	 * @param account
+	 *            The {@link Account} that could not connect.
+	 * @param e
+	 *            The reason why the {@link Account} could not connect.
+	 */
+	void connectionFailed(Account account, FailedConnectionException e);
+
+	/**
+	 * This event is fired when an {@link Account} has not connected within
+	 * the timeout of the {@link ConnectionScheduler}. No other event is fired
+	 * for the attempt after this one.
+	 * 
+	 * @param account
+	 *            The {@link Account} that timed out.
+	 */
+	void connectionTimedOut(Account account);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.account;
+
+/**
+ * This enum represents the stage of the connection of an {@link Account} to
+ * its IM service.
+ * 
+ * @see Account#getConnectionState()
+ */
+public enum ConnectionState {
+
+	/**
+	 * The {@link Account} is not connected, and is not trying to connect.
+	 */
+	DISCONNECTED,
+
+	/**
+	 * The {@link Account} is opening a connection to its IM service.
+	 */
+	CONNECTING,
+
+	/**
+	 * The {@link Account} has opened a connection and is logging in.
+	 */
+	AUTHENTICATING,
+
+	/**
+	 * The {@link Account} is connected and logged in.
+	 */
+	CONNECTED,
+
+	/**
+	 * The {@link Account} lost its connection and is waiting to try to
+	 * connect again.
+	 */
+	RECONNECTING,
+
+	/**
+	 * The {@link Account} could not connect, and has stopped trying.
+	 */
+	FAILED
+
+}
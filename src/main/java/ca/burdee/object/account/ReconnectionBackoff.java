@@ -0,0 +1,127 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.account;
+
+import java.util.Random;
+
+/**
+ * Decides how long an {@link Account} waits before each attempt to
+ * reconnect after it lost its connection. The delay doubles with every
+ * attempt up to a maximum, and a random half of it is jittered away, so
+ * that many clients that were dropped by the same server outage spread
+ * their reconnections out rather than all coming back at once.
+ */
+public class ReconnectionBackoff {
+
+	/**
+	 * The {@link ReconnectionBackoff} that {@link Account}s use unless
+	 * another one is set. It waits about 2 seconds before the first attempt,
+	 * at most 5 minutes between attempts, and gives up after 20 attempts.
+	 */
+	public static final ReconnectionBackoff DEFAULT = 
+		new ReconnectionBackoff(2 * 1000, 5 * 60 * 1000, 20);
+
+	private static final Random random = new Random();
+
+	/**
+	 * @see #getInitialDelay()
+	 */
+	private final long initialDelay;
+
+	/**
+	 * @see #getMaxDelay()
+	 */
+	private final long maxDelay;
+
+	/**
+	 * @see #getMaxAttempts()
+	 */
+	private final int maxAttempts;
+
+	/**
+	 * Creates a new {@link ReconnectionBackoff}.
+	 * 
+	 * @param initialDelay
+	 *            The delay before the first attempt, in milliseconds.
+	 * @param maxDelay
+	 *            The longest delay between two attempts, in milliseconds.
+	 * @param maxAttempts
+	 *            The number of attempts before giving up.
+	 */
+	public ReconnectionBackoff(long initialDelay, long maxDelay, int maxAttempts) {
+		if (initialDelay <= 0 || maxDelay < initialDelay) {
+			throw new IllegalArgumentException("The reconnection delays must be positive " +
+					"and the maximum delay must not be less than the initial delay, not " + 
+					initialDelay + " and " + maxDelay + ".");
+		}
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("At least one reconnection attempt must be " +
+					"made, not " + maxAttempts + ".");
+		}
+		this.initialDelay = initialDelay;
+		this.maxDelay = maxDelay;
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Gets the delay before the first attempt, before jitter.
+	 * 
+	 * @return The delay in milliseconds.
+	 */
+	public long getInitialDelay() {
+		return initialDelay;
+	}
+
+	/**
+	 * Gets the longest delay between two attempts, before jitter.
+	 * 
+	 * @return The delay in milliseconds.
+	 */
+	public long getMaxDelay() {
+		return maxDelay;
+	}
+
+	/**
+	 * Gets the number of attempts to reconnect before giving up.
+	 * 
+	 * @return The maximum number of attempts.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Gets the delay before an attempt to reconnect. It is a random value
+	 * between half and all of the initial delay doubled once for every
+	 * earlier attempt, capped at the maximum delay.
+	 * 
+	 * @param attempt
+	 *            The number of attempts that have already been made.
+	 * @return The delay in milliseconds.
+	 */
+	public long getDelay(int attempt) {
+		long delay = maxDelay;
+		if (attempt < Long.numberOfLeadingZeros(initialDelay) - 1) {
+			delay = Math.min(maxDelay, initialDelay << attempt);
+		}
+		long half = delay / 2;
+		return delay - half + (long) (random.nextDouble() * half);
+	}
+
+}
@@ -0,0 +1,538 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.account;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ca.burdee.object.contact.Contact;
+import ca.burdee.object.contact.Status;
+
+/**
+ * A snapshot of the roster of an {@link Account}, kept in a memory-mapped
+ * file so that the {@link Contact}s of a large roster can be shown again
+ * right after a restart, before the roster has been received from the
+ * server. The restored {@link Contact}s are {@link Status#OFFLINE} until
+ * their presence arrives, since the last session's statuses say nothing
+ * about the current one.
+ * <p>
+ * The snapshot does not keep the roster off the heap. The restored
+ * {@link Contact}s are ordinary objects, and the {@link Account} indexes,
+ * the search index and the tree model all hold them and their name and
+ * address {@link String}s, so the heap grows with the roster just as it
+ * does without a snapshot. The file only saves receiving the roster before
+ * it can be shown, and rewriting the entries that did not change.
+ * <p>
+ * The file holds one fixed-size record per {@link Contact} with its address
+ * and name. Records are read and written in place through the mapping, and
+ * {@link #put(Contact)} only touches a record when its bytes actually
+ * change, so refreshing the snapshot with a roster that has barely changed
+ * writes almost nothing. A {@link Contact} whose name and address do not fit
+ * in a record is left out of the snapshot. The addresses are only kept in
+ * the file; the records are found through a hash table of record numbers,
+ * so an open snapshot takes a few bytes of heap per record.
+ * <p>
+ * The snapshot is only a cache. A file that cannot be read as a snapshot is
+ * overwritten with an empty one.
+ */
+final class RosterSnapshot {
+
+	/**
+	 * Identifies a roster snapshot file.
+	 */
+	private static final int MAGIC = 0x4252534e;
+
+	/**
+	 * The version of the file layout, to be incremented whenever the layout
+	 * changes.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * The size of the file header: the magic number, the version and the
+	 * record size.
+	 */
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * The size of each record. A record is laid out as a used flag, the
+	 * lengths of the name and the address, and then the UTF-8 bytes of the
+	 * name and the address.
+	 */
+	private static final int RECORD_SIZE = 256;
+
+	/**
+	 * The size of the fixed part of a record, before the name.
+	 */
+	private static final int RECORD_HEADER_SIZE = 5;
+
+	/**
+	 * The number of records a new file has room for.
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The open snapshot file.
+	 */
+	private final RandomAccessFile file;
+
+	/**
+	 * The mapping of the whole snapshot file. It is replaced by a larger one
+	 * when the file grows.
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * The number of records the file has room for.
+	 */
+	private int capacity;
+
+	/**
+	 * The records in use, as an open addressing hash table keyed by the
+	 * UTF-8 bytes of their address, with linear probing. Each slot holds a
+	 * record number plus one, or 0 if it is empty. The table is at most half
+	 * full.
+	 * 
+	 * @see #findSlot(byte[])
+	 */
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+
+	/**
+	 * The number of records in {@link #table}.
+	 */
+	private int size;
+
+	/**
+	 * The records that are in use.
+	 */
+	private final BitSet used = new BitSet();
+
+	/**
+	 * Scratch space that a record is encoded into before it is compared with
+	 * the file.
+	 */
+	private final byte[] scratch = new byte[RECORD_SIZE];
+
+	/**
+	 * Opens the roster snapshot in the given file, creating it if it does not
+	 * exist yet.
+	 * 
+	 * @param snapshotFile
+	 *            The file to keep the snapshot in.
+	 * @throws IOException
+	 *             If the file could not be opened or mapped.
+	 */
+	RosterSnapshot(File snapshotFile) throws IOException {
+		File directory = snapshotFile.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory + ".");
+		}
+		file = new RandomAccessFile(snapshotFile, "rw");
+		try {
+			if (!readHeader()) {
+				file.setLength(0);
+				file.setLength(HEADER_SIZE + (long) INITIAL_CAPACITY * RECORD_SIZE);
+				file.writeInt(MAGIC);
+				file.writeInt(VERSION);
+				file.writeInt(RECORD_SIZE);
+			}
+			capacity = (int) ((file.length() - HEADER_SIZE) / RECORD_SIZE);
+			map();
+			for (int record = 0; record < capacity; record++) {
+				int offset = getOffset(record);
+				if (buffer.get(offset) != 0) {
+					int nameLength = buffer.getShort(offset + 1);
+					int addressLength = buffer.getShort(offset + 3);
+					if (nameLength < -1 || addressLength < 0 || RECORD_HEADER_SIZE + 
+							Math.max(nameLength, 0) + addressLength > RECORD_SIZE 
+							|| findSlot(readBytes(getAddressOffset(record), addressLength)) >= 0) {
+						buffer.put(offset, (byte) 0);
+					} else {
+						used.set(record);
+						addToTable(record);
+					}
+				}
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks the header of an existing snapshot file.
+	 * 
+	 * @return true if the file is a snapshot that this class can read.
+	 */
+	private boolean readHeader() throws IOException {
+		if (file.length() < HEADER_SIZE) {
+			return false;
+		}
+		file.seek(0);
+		return file.readInt() == MAGIC && file.readInt() == VERSION && 
+			file.readInt() == RECORD_SIZE;
+	}
+
+	/**
+	 * Maps the whole snapshot file.
+	 */
+	private void map() throws IOException {
+		buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 
+				HEADER_SIZE + (long) capacity * RECORD_SIZE);
+	}
+
+	private static int getOffset(int record) {
+		return HEADER_SIZE + record * RECORD_SIZE;
+	}
+
+	/**
+	 * Gets the offset of the address of a record.
+	 */
+	private int getAddressOffset(int record) {
+		int offset = getOffset(record);
+		return offset + RECORD_HEADER_SIZE + Math.max(buffer.getShort(offset + 1), 0);
+	}
+
+	/**
+	 * Reads the given number of bytes.
+	 */
+	private byte[] readBytes(int offset, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Reads a {@link String} of the given length in UTF-8 bytes, or null if
+	 * the length is negative.
+	 */
+	private String readString(int offset, int length) {
+		if (length < 0) {
+			return null;
+		}
+		return new String(readBytes(offset, length), UTF8);
+	}
+
+	/**
+	 * Reads the address of a record.
+	 */
+	private String readAddress(int record) {
+		return readString(getAddressOffset(record), buffer.getShort(getOffset(record) + 3));
+	}
+
+	/**
+	 * Gets the number of {@link Contact}s in this snapshot.
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Creates a {@link Contact} for every record in this snapshot. The
+	 * {@link Contact}s are {@link Status#OFFLINE}, and still have to be added
+	 * to an {@link Account}.
+	 * 
+	 * @return The {@link Contact}s of the snapshot, in no particular order.
+	 */
+	synchronized List<Contact> restore() {
+		List<Contact> contacts = new ArrayList<Contact>(size);
+		for (int record = used.nextSetBit(0); record >= 0; record = used.nextSetBit(record + 1)) {
+			int nameLength = buffer.getShort(getOffset(record) + 1);
+			String name = readString(getOffset(record) + RECORD_HEADER_SIZE, nameLength);
+			contacts.add(new Contact(name, readAddress(record), Status.OFFLINE));
+		}
+		return contacts;
+	}
+
+	/**
+	 * Stores a {@link Contact} in this snapshot, replacing the record with
+	 * the same address. The record is only written if it has changed.
+	 * 
+	 * @param contact
+	 *            The {@link Contact} to store.
+	 * @return true if the snapshot file was written to.
+	 * @throws IOException
+	 *             If the file had to grow and could not be mapped again.
+	 */
+	synchronized boolean put(Contact contact) throws IOException {
+		if (contact.getAddress() == null) {
+			return false;
+		}
+		byte[] address = contact.getAddress().getBytes(UTF8);
+		int slot = findSlot(address);
+		int length = encode(contact, address);
+		if (length < 0) {
+			return slot >= 0 && removeSlot(slot);
+		}
+		
+		int record;
+		if (slot < 0) {
+			record = allocate();
+		} else {
+			record = table[slot] - 1;
+			if (matches(getOffset(record), length)) {
+				return false;
+			}
+		}
+		ByteBuffer view = buffer.duplicate();
+		view.position(getOffset(record));
+		view.put(scratch, 0, length);
+		if (slot < 0) {
+			addToTable(record);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the record of the given address from this snapshot.
+	 * 
+	 * @param address
+	 *            The address of the {@link Contact} to remove.
+	 * @return true if the snapshot file was written to.
+	 */
+	synchronized boolean remove(String address) {
+		int slot = findSlot(address.getBytes(UTF8));
+		return slot >= 0 && removeSlot(slot);
+	}
+
+	/**
+	 * Makes this snapshot hold exactly the given {@link Contact}s. Only the
+	 * records that have changed are written, and the changes are then
+	 * flushed to the file.
+	 * 
+	 * @param contacts
+	 *            The {@link Contact}s of the roster.
+	 * @return The number of records that were written.
+	 * @throws IOException
+	 *             If the file had to grow and could not be mapped again.
+	 */
+	synchronized int update(Collection<Contact> contacts) throws IOException {
+		int written = 0;
+		Set<String> addresses = new HashSet<String>(contacts.size() * 2);
+		for (Contact contact : contacts) {
+			addresses.add(contact.getAddress());
+			if (put(contact)) {
+				written++;
+			}
+		}
+		List<String> removed = new ArrayList<String>();
+		for (int record = used.nextSetBit(0); record >= 0; record = used.nextSetBit(record + 1)) {
+			String address = readAddress(record);
+			if (!addresses.contains(address)) {
+				removed.add(address);
+			}
+		}
+		for (String address : removed) {
+			if (remove(address)) {
+				written++;
+			}
+		}
+		if (written > 0) {
+			buffer.force();
+		}
+		return written;
+	}
+
+	/**
+	 * Flushes the changes to the file and closes it.
+	 */
+	synchronized void close() throws IOException {
+		buffer.force();
+		file.close();
+	}
+
+	/**
+	 * Encodes the record of a {@link Contact} into {@link #scratch}.
+	 * 
+	 * @param address
+	 *            The UTF-8 bytes of the address of the {@link Contact}.
+	 * @return The length of the record, or -1 if it does not fit.
+	 */
+	private int encode(Contact contact, byte[] address) {
+		byte[] name = contact.getName() == null ? null : contact.getName().getBytes(UTF8);
+		int nameLength = name == null ? 0 : name.length;
+		int length = RECORD_HEADER_SIZE + nameLength + address.length;
+		if (length > RECORD_SIZE) {
+			return -1;
+		}
+		ByteBuffer record = ByteBuffer.wrap(scratch);
+		record.put((byte) 1);
+		record.putShort((short) (name == null ? -1 : name.length));
+		record.putShort((short) address.length);
+		if (name != null) {
+			record.put(name);
+		}
+		record.put(address);
+		return length;
+	}
+
+	/**
+	 * Determines if the record at the given offset already holds the first
+	 * bytes of {@link #scratch}.
+	 */
+	private boolean matches(int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			if (buffer.get(offset + i) != scratch[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds a free record, growing the file if there is none.
+	 */
+	private int allocate() throws IOException {
+		int record = used.nextClearBit(0);
+		if (record >= capacity) {
+			capacity *= 2;
+			map();
+		}
+		used.set(record);
+		return record;
+	}
+
+	/**
+	 * Finds the slot of {@link #table} that holds the record of an address.
+	 * 
+	 * @param address
+	 *            The UTF-8 bytes of the address.
+	 * @return The slot, or the complement of the empty slot the record would
+	 *         go in if there is none.
+	 */
+	private int findSlot(byte[] address) {
+		int mask = table.length - 1;
+		int slot = hash(ByteBuffer.wrap(address), 0, address.length) & mask;
+		while (table[slot] != 0) {
+			if (hasAddress(table[slot] - 1, address)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+
+	/**
+	 * Adds a record whose address is not in {@link #table} yet, growing the
+	 * table if it would become more than half full.
+	 */
+	private void addToTable(int record) {
+		if ((size + 1) * 2 > table.length) {
+			int[] oldTable = table;
+			table = new int[oldTable.length * 2];
+			for (int entry : oldTable) {
+				if (entry != 0) {
+					insert(entry - 1);
+				}
+			}
+		}
+		insert(record);
+		size++;
+	}
+
+	/**
+	 * Puts a record in the first empty slot from its home slot.
+	 */
+	private void insert(int record) {
+		int mask = table.length - 1;
+		int slot = getHash(record) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = record + 1;
+	}
+
+	/**
+	 * Frees the record in a slot of {@link #table}, and empties the slot. The
+	 * records after it that would no longer be found are moved back.
+	 * 
+	 * @return true, since the snapshot file was written to.
+	 */
+	private boolean removeSlot(int slot) {
+		int record = table[slot] - 1;
+		buffer.put(getOffset(record), (byte) 0);
+		used.clear(record);
+		size--;
+		
+		int mask = table.length - 1;
+		table[slot] = 0;
+		for (int next = (slot + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+			int home = getHash(table[next] - 1) & mask;
+			// The record can fill the hole unless its home slot lies
+			// between the hole and where it is now.
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				table[slot] = table[next];
+				table[next] = 0;
+				slot = next;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the hash of the address of a record.
+	 */
+	private int getHash(int record) {
+		return hash(buffer, getAddressOffset(record), buffer.getShort(getOffset(record) + 3));
+	}
+
+	/**
+	 * Hashes bytes, spreading the higher bits to the lower ones that pick a
+	 * slot of {@link #table}.
+	 */
+	private static int hash(ByteBuffer bytes, int offset, int length) {
+		int hash = 0;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + bytes.get(offset + i);
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Determines if a record has the given address.
+	 */
+	private boolean hasAddress(int record, byte[] address) {
+		if (buffer.getShort(getOffset(record) + 3) != address.length) {
+			return false;
+		}
+		int offset = getAddressOffset(record);
+		for (int i = 0; i < address.length; i++) {
+			if (buffer.get(offset + i) != address[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -18,14 +18,23 @@
 
 package ca.burdee.object.account;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.SwingUtilities;
 
 import org.jivesoftware.smack.Chat;
 import org.jivesoftware.smack.ChatManagerListener;
+import org.jivesoftware.smack.ConnectionConfiguration;
+import org.jivesoftware.smack.ConnectionListener;
 import org.jivesoftware.smack.MessageListener;
 import org.jivesoftware.smack.Roster;
 import org.jivesoftware.smack.RosterEntry;
@@ -37,6 +46,7 @@ import org.jivesoftware.smack.packet.Presence;
 import org.jivesoftware.smack.packet.Presence.Mode;
 import org.jivesoftware.smack.util.StringUtils;
 
+import ca.burdee.object.BurdeeProperty;
 import ca.burdee.object.contact.Contact;
 import ca.burdee.object.contact.Conversation;
 import ca.burdee.object.contact.Status;
@@ -46,6 +56,42 @@ import ca.burdee.object.contact.XMPPConversation;
  * This {@link Account} wrapper connects with an XMPP service. 
  */
 public class XMPPAccount extends Account {
+
+	private static final Logger logger = Logger.getLogger(XMPPAccount.class.getName());
+
+	/**
+	 * The directory that the {@link RosterSnapshot} of each
+	 * {@link XMPPAccount} is kept in. It defaults to .burdee/rosters in the
+	 * home directory of the user, and can be changed with the
+	 * burdee.rosterSnapshotDir system property.
+	 */
+	private static final File ROSTER_SNAPSHOT_DIRECTORY = new File(
+			System.getProperty("burdee.rosterSnapshotDir", 
+					new File(new File(System.getProperty("user.home"), ".burdee"), "rosters").getPath()));
+
+	/**
+	 * The domain property of an {@link XMPPAccount}.
+	 * 
+	 * @see #getDomain()
+	 */
+	public static final BurdeeProperty<String> DOMAIN = 
+		BurdeeProperty.create(XMPPAccount.class, "domain", String.class);
+
+	/**
+	 * The resource property of an {@link XMPPAccount}.
+	 * 
+	 * @see #getResource()
+	 */
+	public static final BurdeeProperty<String> RESOURCE = 
+		BurdeeProperty.create(XMPPAccount.class, "resource", String.class);
+
+	/**
+	 * The anonymous property of an {@link XMPPAccount}.
+	 * 
+	 * @see #isAnonymous()
+	 */
+	public static final BurdeeProperty<Boolean> ANONYMOUS = 
+		BurdeeProperty.create(XMPPAccount.class, "anonymous", Boolean.class);
 	
 	/**
 	 * @see #getDomain()
@@ -67,6 +113,15 @@ public class XMPPAccount extends Account {
 	 */
 	private boolean anonymous;
 
+	/**
+	 * The snapshot of the roster of this {@link XMPPAccount}, which is only
+	 * read when connecting, to show the {@link Contact}s of the last session
+	 * before the roster arrives. It is opened when connecting and closed
+	 * when disconnecting, and is null while closed or if it could not be
+	 * opened.
+	 */
+	private volatile RosterSnapshot rosterSnapshot;
+
 	/**
 	 * This {@link RosterListener} listens to changes to the XMPP roster, and
 	 * translates those changes to {@link Contact} objects.
@@ -83,29 +138,75 @@ public class XMPPAccount extends Account {
 		@Override
 		public void entriesUpdated(Collection<String> addresses) {
 			Roster roster = connection.getRoster();
-			for (String address : addresses) {
-				RosterEntry rosterEntry = roster.getEntry(address);
-				Contact contact = findContactByAddress(address);
-				contact.setName(rosterEntry.getName());
-				contact.setAddress(rosterEntry.getUser());
+			begin();
+			try {
+				for (String address : addresses) {
+					RosterEntry rosterEntry = roster.getEntry(address);
+					Contact contact = findContactByAddress(address);
+					contact.setName(rosterEntry.getName());
+					contact.setAddress(rosterEntry.getUser());
+					storeInRosterSnapshot(contact);
+				}
+			} finally {
+				commit();
 			}
 		}
 		
 		@Override
 		public void entriesDeleted(Collection<String> addresses) {
+			List<Contact> contacts = new ArrayList<Contact>();
 			for (String address : addresses) {
-				Contact contact = findContactByAddress(address);
-				removeChild(contact);
+				contacts.add(findContactByAddress(address));
+				removeFromRosterSnapshot(address);
 			}
+			removeChildren(contacts);
 		}
 		
 		@Override
 		public void entriesAdded(Collection<String> addresses) {
 			Roster roster = connection.getRoster();
+			List<Contact> contacts = new ArrayList<Contact>();
 			for (String address : addresses) {
-				addContact(roster.getEntry(address), 
+				Contact contact = createContact(roster.getEntry(address), 
 						getStatusFromPresence(roster.getPresence(address)));
+				contacts.add(contact);
+				storeInRosterSnapshot(contact);
 			}
+			addChildren(contacts);
+		}
+	};
+	
+	/**
+	 * This {@link ConnectionListener} notices when the XMPP connection is
+	 * closed by an error, and starts reconnecting this {@link XMPPAccount}.
+	 * The reconnection manager of Smack is turned off in favour of
+	 * {@link #connectionLost(Exception)}, which backs off with jitter.
+	 */
+	private final ConnectionListener connectionStateListener = new ConnectionListener() {
+
+		@Override
+		public void connectionClosedOnError(Exception e) {
+			connectionLost(e);
+		}
+
+		@Override
+		public void connectionClosed() {
+			// Closed by disconnect(), which updates the state itself.
+		}
+
+		@Override
+		public void reconnectingIn(int seconds) {
+			// Smack does not reconnect by itself.
+		}
+
+		@Override
+		public void reconnectionSuccessful() {
+			// Smack does not reconnect by itself.
+		}
+
+		@Override
+		public void reconnectionFailed(Exception e) {
+			// Smack does not reconnect by itself.
 		}
 	};
 	
@@ -138,36 +239,65 @@ public class XMPPAccount extends Account {
 		return connection;
 	}
 
+	/**
+	 * Connects to the XMPP service. The {@link Contact}s from the
+	 * {@link RosterSnapshot} of the last session are shown as offline while
+	 * connecting, and {@link #populate()} then brings them up to date with
+	 * the roster and the presences on the server. If connecting fails, they
+	 * stay offline.
+	 */
 	@Override
 	public synchronized void connect() throws FailedConnectionException {
 		if (!isConnected()) {
-			connection = new XMPPConnection(domain);
+			openRosterSnapshot();
+			setConnectionState(ConnectionState.CONNECTING);
+			ConnectionConfiguration configuration = new ConnectionConfiguration(domain);
+			configuration.setReconnectionAllowed(false);
+			XMPPConnection newConnection = new XMPPConnection(configuration);
 			try {
-				connection.connect();
+				newConnection.connect();
+				setConnectionState(ConnectionState.AUTHENTICATING);
 				if (isAnonymous()) {
-					connection.loginAnonymously();
+					newConnection.loginAnonymously();
 				} else if (resource == null) {
-					connection.login(getName(), getPassword());
+					newConnection.login(getName(), getPassword());
 				} else {
-					connection.login(getName(), getPassword(), resource);
+					newConnection.login(getName(), getPassword(), resource);
 				}
-				
-				firePropertyChanged("connection", null, connection);
-				
 			} catch (XMPPException e) {
+				newConnection.disconnect();
+				setConnectionState(isReconnecting() ? 
+						ConnectionState.RECONNECTING : ConnectionState.FAILED);
 				throw new FailedConnectionException("Could not connect and login to " +
 						"XMPP account.", e);
 			}
+			
+			// A connection that was lost is replaced.
+			XMPPConnection oldConnection = connection;
+			if (oldConnection != null) {
+				oldConnection.removeConnectionListener(connectionStateListener);
+			}
+			connection = newConnection;
+			connection.addConnectionListener(connectionStateListener);
+			setConnectionState(ConnectionState.CONNECTED);
+			firePropertyChanged(CONNECTION, oldConnection, connection);
 		}
 	}
 	
 	@Override
-	public void disconnect() {
-		if (isConnected()) {
-			connection.disconnect();
+	public synchronized void disconnect() {
+		cancelReconnection();
+		if (connection != null) {
+			XMPPConnection oldConnection = connection;
+			oldConnection.removeConnectionListener(connectionStateListener);
+			if (oldConnection.isConnected()) {
+				oldConnection.disconnect();
+			}
 			connection = null;
-			firePropertyChanged("connection", connection, null);
+			firePropertyChanged(CONNECTION, oldConnection, null);
 		}
+		setConnectionState(ConnectionState.DISCONNECTED);
+		closeRosterSnapshot();
 	}
 
 	@Override
@@ -194,7 +324,7 @@ public class XMPPAccount extends Account {
 	public void setAnonymous(boolean anonymous) {
 		boolean oldAnonymous = this.anonymous;
 		this.anonymous = anonymous;
-		firePropertyChanged("anonymous", oldAnonymous, anonymous);
+		firePropertyChanged(ANONYMOUS, oldAnonymous, anonymous);
 	}
 
 	/**
@@ -215,7 +345,7 @@ public class XMPPAccount extends Account {
 	public void setDomain(String domain) {
 		String oldServiceName = this.domain;
 		this.domain = domain;
-		firePropertyChanged("domain", oldServiceName, domain);
+		firePropertyChanged(DOMAIN, oldServiceName, domain);
 	}
 
 	/**
@@ -236,7 +366,7 @@ public class XMPPAccount extends Account {
 	public void setResource(String resource) {
 		String oldResource = this.resource;
 		this.resource = resource;
-		firePropertyChanged("resource", oldResource, resource);
+		firePropertyChanged(RESOURCE, oldResource, resource);
 	}
 	
 	@Override
@@ -252,92 +382,188 @@ public class XMPPAccount extends Account {
 		setAnonymous(sourceAccount.isAnonymous());
 	}
 
+	/**
+	 * Brings the {@link Contact}s of this {@link XMPPAccount} up to date with
+	 * the roster on the server. {@link Contact}s that are already children,
+	 * such as those restored from the {@link RosterSnapshot}, are updated in
+	 * place rather than replaced, and only the entries of the snapshot that
+	 * have changed are written back.
+	 */
 	@Override
 	public synchronized void populate() {
 		if (isConnected()) {
-			if (isPopulated()) {
-				List<Contact> contacts = getChildren(Contact.class);
-				for (int i = contacts.size() - 1; i >= 0; i--) {
-					removeChild(contacts.get(i));
+			// The whole roster is loaded in a single transaction so that
+			// listeners are notified once rather than once per contact.
+			begin();
+			try {
+				if (isPopulated()) {
+					populated = false;
+					firePropertyChanged(POPULATED, true, false);
 				}
-				
-				populated = false;
-				firePropertyChanged("populated", true, false);
-			}
 			
-			final Roster roster = connection.getRoster();
+				final Roster roster = connection.getRoster();
 			
-			for (RosterEntry entry : roster.getEntries()) {
-				addContact(entry, getStatusFromPresence(roster.getPresence(entry.getUser())));
-			}
+				Set<Contact> removed = new HashSet<Contact>(getChildren(Contact.class));
+				List<Contact> added = new ArrayList<Contact>();
+				List<Contact> contacts = new ArrayList<Contact>();
+				for (RosterEntry entry : roster.getEntries()) {
+					Status status = getStatusFromPresence(roster.getPresence(entry.getUser()));
+					Contact contact = findContactByAddress(entry.getUser());
+					if (contact == null || !removed.remove(contact)) {
+						contact = createContact(entry, status);
+						added.add(contact);
+					} else {
+						contact.setName(entry.getName());
+						contact.setStatus(status);
+					}
+					contacts.add(contact);
+				}
+				if (!removed.isEmpty()) {
+					removeChildren(new ArrayList<Contact>(removed));
+				}
+				if (!added.isEmpty()) {
+					addChildren(added);
+				}
+				updateRosterSnapshot(contacts);
 			
-			roster.addRosterListener(rosterListener);
+				roster.addRosterListener(rosterListener);
 			
-			connection.getChatManager().addChatListener(new ChatManagerListener() {
+				connection.getChatManager().addChatListener(new ChatManagerListener() {
 				
-				@Override
-				public void chatCreated(final Chat chat, boolean createdLocally) {
-					String address = StringUtils.parseBareAddress(chat.getParticipant());
-					Conversation conversation = null;
-					Contact contact = null;
-					for (Conversation localConversation : getChildren(Conversation.class)) {
-						for (Contact localContact : localConversation.getContacts()) {
-							if (localContact.getAddress().equals(address)) {
-								conversation = localConversation;
-								contact = localContact;
-								break;
-							}
-						}
-					}
-
-					if (conversation == null) {
-						contact = findContactByAddress(address);
+					@Override
+					public void chatCreated(final Chat chat, boolean createdLocally) {
+						String address = StringUtils.parseBareAddress(chat.getParticipant());
+						Contact contact = findContactByAddress(address);
 						if (contact == null) {
 							throw new IllegalStateException("A chat was created but could not find its contact.");
 						}
-						conversation = createConversation(Collections.singletonList(contact));
-					}
+						
+						Conversation conversation = findConversation(contact);
+						if (conversation == null) {
+							conversation = createConversation(Collections.singletonList(contact));
+						}
 
-					final Conversation finalConversation = conversation;
-					final Contact finalContact = contact;
+						final Conversation finalConversation = conversation;
+						final Contact finalContact = contact;
 
-					chat.addMessageListener(new MessageListener() {
+						chat.addMessageListener(new MessageListener() {
 
-						@Override
-						public void processMessage(Chat chat, final Message message) {
-							// Firing a message received event on the event
-							// dispatching thread. This is hack to ensure that
-							// the ConversationFrame and ConversationPanel for
-							// this Conversation has been created before
-							// sending the message to it.
-							SwingUtilities.invokeLater(new Runnable() {
+							@Override
+							public void processMessage(Chat chat, final Message message) {
+								// Firing a message received event on the event
+								// dispatching thread. This is hack to ensure that
+								// the ConversationFrame and ConversationPanel for
+								// this Conversation has been created before
+								// sending the message to it.
+								SwingUtilities.invokeLater(new Runnable() {
 								
-								@Override
-								public void run() {
-									finalConversation.fireMessageReceived(finalContact, message.getBody());
-								}
-							});
-						}
-					});
-				}
-			});
+									@Override
+									public void run() {
+										finalConversation.fireMessageReceived(finalContact, message.getBody());
+									}
+								});
+							}
+						});
+					}
+				});
 			
-			populated = true;
-			firePropertyChanged("populated", false, true);
+				populated = true;
+				firePropertyChanged(POPULATED, false, true);
+			} finally {
+				commit();
+			}
+		}
+	}
+
+	/**
+	 * Opens the {@link RosterSnapshot} of this {@link XMPPAccount}, and shows
+	 * its {@link Contact}s as offline if this {@link XMPPAccount} has none
+	 * yet. Anonymous accounts have no roster to keep, so they have no
+	 * snapshot.
+	 */
+	private void openRosterSnapshot() {
+		if (rosterSnapshot != null || isAnonymous() || getName() == null || domain == null) {
+			return;
+		}
+		File file = new File(ROSTER_SNAPSHOT_DIRECTORY, getName() + "@" + domain + ".roster");
+		try {
+			rosterSnapshot = new RosterSnapshot(file);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Unable to open the roster snapshot " + file + ".", e);
+			return;
+		}
+		if (!isPopulated() && getChildren(Contact.class).isEmpty() && rosterSnapshot.size() > 0) {
+			addChildren(rosterSnapshot.restore());
+		}
+	}
+
+	/**
+	 * Closes the {@link RosterSnapshot} of this {@link XMPPAccount}, if it is
+	 * open.
+	 */
+	private void closeRosterSnapshot() {
+		if (rosterSnapshot != null) {
+			try {
+				rosterSnapshot.close();
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Unable to close the roster snapshot.", e);
+			}
+			rosterSnapshot = null;
+		}
+	}
+
+	/**
+	 * Makes the {@link RosterSnapshot} hold exactly the given {@link Contact}s.
+	 */
+	private void updateRosterSnapshot(Collection<Contact> contacts) {
+		RosterSnapshot snapshot = rosterSnapshot;
+		if (snapshot != null) {
+			try {
+				snapshot.update(contacts);
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Unable to update the roster snapshot.", e);
+			}
+		}
+	}
+
+	/**
+	 * Stores a {@link Contact} in the {@link RosterSnapshot}.
+	 */
+	private void storeInRosterSnapshot(Contact contact) {
+		RosterSnapshot snapshot = rosterSnapshot;
+		if (snapshot != null && contact != null) {
+			try {
+				snapshot.put(contact);
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Unable to store " + contact.getAddress() + 
+						" in the roster snapshot.", e);
+			}
+		}
+	}
+
+	/**
+	 * Removes the {@link Contact} with the given address from the
+	 * {@link RosterSnapshot}.
+	 */
+	private void removeFromRosterSnapshot(String address) {
+		RosterSnapshot snapshot = rosterSnapshot;
+		if (snapshot != null) {
+			snapshot.remove(address);
 		}
 	}
 
 	/**
-	 * Adds a {@link Contact} to this {@link XMPPAccount}.
+	 * Creates a {@link Contact} for an XMPP {@link RosterEntry}. The
+	 * {@link Contact} still has to be added to this {@link XMPPAccount}.
 	 * 
 	 * @param entry
 	 *            The XMPP {@link RosterEntry} for this {@link Contact}.
 	 * @param status
 	 *            The {@link Status} of the {@link Contact}.
+	 * @return The new {@link Contact}.
 	 */
-	private void addContact(RosterEntry entry, Status status) {
-		Contact contact = new Contact(entry.getName(), entry.getUser(), status);
-		addChild(contact);
+	private static Contact createContact(RosterEntry entry, Status status) {
+		return new Contact(entry.getName(), entry.getUser(), status);
 	}
 
 	/**
@@ -362,23 +588,6 @@ public class XMPPAccount extends Account {
 		}
 	}
 
-	/**
-	 * Finds the first {@link Contact} with a matching address.
-	 * 
-	 * @param address
-	 *            The address to search for.
-	 * @return The {@link Contact} with the matching address, or null if one
-	 *         does not exist.
-	 */
-	private Contact findContactByAddress(String address) {
-		for (Contact contact : getChildren(Contact.class)) {
-			if (contact.getAddress().equals(address)) {
-				return contact;
-			}
-		}
-		return null;
-	}
-
 	@Override
 	public XMPPConversation createConversation(List<Contact> contacts) {
 		if (contacts == null || contacts.isEmpty()) {
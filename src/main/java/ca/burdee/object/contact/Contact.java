@@ -23,6 +23,7 @@ import java.util.List;
 
 import ca.burdee.object.AbstractBurdeeObject;
 import ca.burdee.object.BurdeeObject;
+import ca.burdee.object.BurdeeProperty;
 import ca.burdee.object.account.Account;
 
 /**
@@ -30,6 +31,22 @@ import ca.burdee.object.account.Account;
  * {@link Account} can chat with.
  */
 public class Contact extends AbstractBurdeeObject {
+
+	/**
+	 * The address property of a {@link Contact}.
+	 * 
+	 * @see #getAddress()
+	 */
+	public static final BurdeeProperty<String> ADDRESS = 
+		BurdeeProperty.create(Contact.class, "address", String.class);
+
+	/**
+	 * The status property of a {@link Contact}.
+	 * 
+	 * @see #getStatus()
+	 */
+	public static final BurdeeProperty<Status> STATUS = 
+		BurdeeProperty.create(Contact.class, "status", Status.class);
 	
 	/**
 	 * @see #getAddress()
@@ -108,7 +125,7 @@ public class Contact extends AbstractBurdeeObject {
 	public void setAddress(String address) {
 		String oldAddress = this.address;
 		this.address = address;
-		firePropertyChanged("address", oldAddress, address);
+		firePropertyChanged(ADDRESS, oldAddress, address);
 	}
 
 	/**
@@ -129,7 +146,7 @@ public class Contact extends AbstractBurdeeObject {
 	public void setStatus(Status status) {
 		Status oldStatus = this.status;
 		this.status = status;
-		firePropertyChanged("status", oldStatus, status);
+		firePropertyChanged(STATUS, oldStatus, status);
 	}
 	
 	@Override
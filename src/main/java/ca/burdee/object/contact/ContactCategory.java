@@ -18,13 +18,13 @@
 
 package ca.burdee.object.contact;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import ca.burdee.object.AbstractBurdeeObject;
 import ca.burdee.object.BurdeeObject;
 import ca.burdee.object.account.Account;
+import ca.burdee.object.util.IdentityIndexedList;
 
 /**
  * This {@link BurdeeObject} is a contact list category which holds a collection
@@ -35,7 +35,7 @@ public class ContactCategory extends AbstractBurdeeObject {
 	/**
 	 * @see #getContacts()
 	 */
-	private final List<Contact> contacts = new ArrayList<Contact>();
+	private final List<Contact> contacts = new IdentityIndexedList<Contact>();
 
 	/**
 	 * Creates a new {@link ContactCategory}.
@@ -24,7 +24,9 @@ import java.util.List;
 
 import ca.burdee.object.AbstractBurdeeObject;
 import ca.burdee.object.BurdeeObject;
+import ca.burdee.object.BurdeeProperty;
 import ca.burdee.object.account.Account;
+import ca.burdee.object.metrics.ListenerMetrics;
 
 /**
  * This {@link BurdeeObject} represents a single conversation between the user
@@ -32,6 +34,17 @@ import ca.burdee.object.account.Account;
  */
 public abstract class Conversation extends AbstractBurdeeObject {
 
+	private static final ListenerMetrics metrics = ListenerMetrics.getInstance();
+
+	/**
+	 * The contacts property of a {@link Conversation}. Its values are
+	 * snapshots of the {@link List} of {@link Contact}s before and after a
+	 * {@link Contact} was added or removed.
+	 * 
+	 * @see #getContacts()
+	 */
+	public static final BurdeeProperty<List<Contact>> CONTACTS = createContactsProperty();
+
 	/**
 	 * The {@link List} of {@link Contact}s that this {@link Conversation}
 	 * includes.
@@ -45,6 +58,17 @@ public abstract class Conversation extends AbstractBurdeeObject {
 	private final List<ConversationListener> conversationListeners = 
 		new ArrayList<ConversationListener>();
 
+	/**
+	 * Creates the {@link #CONTACTS} property. The only {@link Class} of a
+	 * {@link List} is the raw one, so it is cast to a {@link List} of
+	 * {@link Contact}s here.
+	 */
+	private static BurdeeProperty<List<Contact>> createContactsProperty() {
+		@SuppressWarnings("unchecked")
+		Class<List<Contact>> type = (Class<List<Contact>>) (Class<?>) List.class;
+		return BurdeeProperty.create(Conversation.class, "contacts", type);
+	}
+
 	/**
 	 * Creates a new {@link Conversation} with a single {@link Contact}.
 	 * 
@@ -155,7 +179,9 @@ public abstract class Conversation extends AbstractBurdeeObject {
 					Conversation.class.getSimpleName() + " " + getName() + 
 					" because it already exists.");
 		}
+		List<Contact> oldContacts = new ArrayList<Contact>(contacts);
 		contacts.add(index, c);
+		firePropertyChanged(CONTACTS, oldContacts, new ArrayList<Contact>(contacts));
 	}
 
 	/**
@@ -166,7 +192,12 @@ public abstract class Conversation extends AbstractBurdeeObject {
 	 * @return true if the removal was successful.
 	 */
 	public boolean removeContact(Contact c) {
-		return contacts.remove(c);
+		List<Contact> oldContacts = new ArrayList<Contact>(contacts);
+		boolean removed = contacts.remove(c);
+		if (removed) {
+			firePropertyChanged(CONTACTS, oldContacts, new ArrayList<Contact>(contacts));
+		}
+		return removed;
 	}
 
 	/**
@@ -209,7 +240,9 @@ public abstract class Conversation extends AbstractBurdeeObject {
 	public void fireMessageReceived(Contact contact, String message) {
 		synchronized(conversationListeners) {
 			for (ConversationListener l : conversationListeners) {
+				long start = metrics.start(l);
 				l.messageReceived(this, contact, message);
+				metrics.stop(l, start);
 			}
 		}
 	}
@@ -224,7 +257,9 @@ public abstract class Conversation extends AbstractBurdeeObject {
 	public void fireMessageSent(String message) {
 		synchronized(conversationListeners) {
 			for (ConversationListener l : conversationListeners) {
+				long start = metrics.start(l);
 				l.messageSent(this, message);
+				metrics.stop(l, start);
 			}
 		}
 	}
@@ -0,0 +1,55 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object.dispatch;
+
+import ca.burdee.object.BurdeeListener;
+import ca.burdee.object.BurdeeObject;
+
+/**
+ * A {@link BurdeeEventDispatcher} decides on which thread, and when, an event
+ * fired by a {@link BurdeeObject} is delivered to a {@link BurdeeListener}.
+ * Events are fired on whichever thread modified the {@link BurdeeObject},
+ * which may be a network thread, a background worker or the event dispatching
+ * thread. A {@link BurdeeListener} wrapped in a
+ * {@link DispatchingBurdeeListener} receives them through its dispatcher
+ * instead.
+ * <p>
+ * Every implementation must deliver the events of a single source object in
+ * the order they were fired.
+ * 
+ * @see SynchronousEventDispatcher
+ * @see SwingEventDispatcher
+ * @see ExecutorEventDispatcher
+ */
+public interface BurdeeEventDispatcher {
+
+	/**
+	 * Delivers an event by running the given {@link Runnable}, either right
+	 * away or at a later time on another thread.
+	 * 
+	 * @param source
+	 *            The {@link BurdeeObject} that fired the event.
+	 * @param delivery
+	 *            The {@link Runnable} that calls the {@link BurdeeListener}
+	 *            with the event.
+	 */
+	void dispatch(BurdeeObject source, Runnable delivery);
+	
+}
@@ -0,0 +1,132 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object.dispatch;
+
+import java.beans.PropertyChangeEvent;
+
+import ca.burdee.object.BurdeeChildEvent;
+import ca.burdee.object.BurdeeListener;
+import ca.burdee.object.BurdeeObject;
+import ca.burdee.object.BurdeeTransactionEvent;
+import ca.burdee.object.metrics.ListenerMetrics;
+
+/**
+ * This {@link BurdeeListener} passes every event it receives on to another
+ * {@link BurdeeListener} through a {@link BurdeeEventDispatcher}. It is
+ * attached to a {@link BurdeeObject} in place of the listener it wraps, and
+ * must also be the instance that is removed from it.
+ * <p>
+ * The time taken to hand an event to the dispatcher is recorded by
+ * {@link ListenerMetrics} under this class, while the time the wrapped
+ * listener takes to handle it, on whichever thread, is recorded under the
+ * class of the wrapped listener.
+ */
+public class DispatchingBurdeeListener implements BurdeeListener {
+
+	private static final ListenerMetrics metrics = ListenerMetrics.getInstance();
+
+	/**
+	 * The {@link BurdeeListener} that the events are delivered to.
+	 */
+	private final BurdeeListener listener;
+
+	/**
+	 * The {@link BurdeeEventDispatcher} that delivers the events.
+	 */
+	private final BurdeeEventDispatcher dispatcher;
+
+	/**
+	 * Creates a new {@link DispatchingBurdeeListener}.
+	 * 
+	 * @param listener
+	 *            The {@link BurdeeListener} to deliver the events to.
+	 * @param dispatcher
+	 *            The {@link BurdeeEventDispatcher} that decides which thread
+	 *            the events are delivered on.
+	 */
+	public DispatchingBurdeeListener(BurdeeListener listener, BurdeeEventDispatcher dispatcher) {
+		if (listener == null || dispatcher == null) {
+			throw new IllegalArgumentException("Both a listener and a dispatcher must be given.");
+		}
+		this.listener = listener;
+		this.dispatcher = dispatcher;
+	}
+
+	@Override
+	public void childAdded(final BurdeeChildEvent evt) {
+		dispatcher.dispatch(evt.getSource(), new Runnable() {
+			@Override
+			public void run() {
+				long start = metrics.start(listener);
+				listener.childAdded(evt);
+				metrics.stop(listener, start);
+			}
+		});
+	}
+
+	@Override
+	public void childRemoved(final BurdeeChildEvent evt) {
+		dispatcher.dispatch(evt.getSource(), new Runnable() {
+			@Override
+			public void run() {
+				long start = metrics.start(listener);
+				listener.childRemoved(evt);
+				metrics.stop(listener, start);
+			}
+		});
+	}
+
+	@Override
+	public void childMoved(final BurdeeChildEvent evt) {
+		dispatcher.dispatch(evt.getSource(), new Runnable() {
+			@Override
+			public void run() {
+				long start = metrics.start(listener);
+				listener.childMoved(evt);
+				metrics.stop(listener, start);
+			}
+		});
+	}
+
+	@Override
+	public void propertyChange(final PropertyChangeEvent evt) {
+		dispatcher.dispatch((BurdeeObject) evt.getSource(), new Runnable() {
+			@Override
+			public void run() {
+				long start = metrics.start(listener);
+				listener.propertyChange(evt);
+				metrics.stop(listener, start);
+			}
+		});
+	}
+
+	@Override
+	public void transactionCommitted(final BurdeeTransactionEvent evt) {
+		dispatcher.dispatch(evt.getSource(), new Runnable() {
+			@Override
+			public void run() {
+				long start = metrics.start(listener);
+				listener.transactionCommitted(evt);
+				metrics.stop(listener, start);
+			}
+		});
+	}
+
+}
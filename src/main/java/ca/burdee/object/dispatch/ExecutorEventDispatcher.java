@@ -0,0 +1,128 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object.dispatch;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import ca.burdee.object.BurdeeObject;
+
+/**
+ * This {@link BurdeeEventDispatcher} delivers events on the threads of an
+ * {@link Executor}. Events from different source objects may be delivered
+ * concurrently, but the events of a single source object are delivered one
+ * at a time, in the order in which they were fired. Each source object with
+ * undelivered events has its own lane that is submitted to the
+ * {@link Executor} as a single task, and the lane is discarded as soon as it
+ * is empty.
+ */
+public class ExecutorEventDispatcher implements BurdeeEventDispatcher {
+
+	/**
+	 * The {@link Executor} that runs the lanes.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The lanes of the source objects that have undelivered events, keyed by
+	 * source object. This map also serves as the lock for the queues of all
+	 * of its lanes.
+	 */
+	private final Map<BurdeeObject, Lane> lanes = new HashMap<BurdeeObject, Lane>();
+
+	/**
+	 * Creates a new {@link ExecutorEventDispatcher}.
+	 * 
+	 * @param executor
+	 *            The {@link Executor} to deliver events on.
+	 */
+	public ExecutorEventDispatcher(Executor executor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("An executor must be given to dispatch events on.");
+		}
+		this.executor = executor;
+	}
+
+	@Override
+	public void dispatch(BurdeeObject source, Runnable delivery) {
+		Lane lane;
+		synchronized (lanes) {
+			lane = lanes.get(source);
+			if (lane != null) {
+				lane.queue.add(delivery);
+				return;
+			}
+			lane = new Lane(source);
+			lane.queue.add(delivery);
+			lanes.put(source, lane);
+		}
+		executor.execute(lane);
+	}
+
+	/**
+	 * The deliveries of a single source object that have not been run yet.
+	 * While a {@link Lane} is registered in {@link #lanes}, it is either
+	 * waiting in or running on the {@link Executor}.
+	 */
+	private class Lane implements Runnable {
+
+		/**
+		 * The source object whose events are delivered by this {@link Lane}.
+		 */
+		private final BurdeeObject source;
+
+		/**
+		 * The deliveries in the order in which the events were fired. This is
+		 * guarded by {@link ExecutorEventDispatcher#lanes}.
+		 */
+		private final Queue<Runnable> queue = new LinkedList<Runnable>();
+
+		private Lane(BurdeeObject source) {
+			this.source = source;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Runnable delivery;
+				synchronized (lanes) {
+					delivery = queue.poll();
+					if (delivery == null) {
+						lanes.remove(source);
+						return;
+					}
+				}
+				
+				try {
+					delivery.run();
+				} catch (RuntimeException e) {
+					// A failing listener must not stop the events after it
+					// from being delivered.
+					Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+				}
+			}
+		}
+	}
+
+}
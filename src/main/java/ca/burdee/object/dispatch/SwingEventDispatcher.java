@@ -0,0 +1,136 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import ca.burdee.object.BurdeeObject;
+
+/**
+ * This {@link BurdeeEventDispatcher} delivers events on the event dispatching
+ * thread, so that listeners which update Swing components never run on a
+ * network thread or a background worker. Events fired off the event
+ * dispatching thread are queued, and a whole burst of them is delivered by a
+ * single {@link SwingUtilities#invokeLater(Runnable)} call instead of one
+ * call per event. Events fired on the event dispatching thread are delivered
+ * immediately, unless earlier events are still queued, in which case they
+ * are queued behind them to keep the order in which events were fired.
+ */
+public class SwingEventDispatcher implements BurdeeEventDispatcher {
+
+	/**
+	 * The shared {@link SwingEventDispatcher}.
+	 * 
+	 * @see #getInstance()
+	 */
+	private static final SwingEventDispatcher INSTANCE = new SwingEventDispatcher();
+
+	/**
+	 * Gets the shared {@link SwingEventDispatcher}. Using a single instance for
+	 * all listeners lets every queued event be delivered by the same
+	 * {@link SwingUtilities#invokeLater(Runnable)} call, in the order in which
+	 * they were fired.
+	 */
+	public static SwingEventDispatcher getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * The lock that guards {@link #queue} and {@link #scheduled}.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * The deliveries that are waiting to be run on the event dispatching
+	 * thread.
+	 */
+	private List<Runnable> queue = new ArrayList<Runnable>();
+
+	/**
+	 * Whether {@link #drainer} has been posted to the event queue and has not
+	 * finished yet.
+	 */
+	private boolean scheduled;
+
+	/**
+	 * This {@link Runnable} runs all of the queued deliveries, including those
+	 * that are queued while it is running.
+	 */
+	private final Runnable drainer = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	@Override
+	public void dispatch(BurdeeObject source, Runnable delivery) {
+		synchronized (lock) {
+			if (scheduled || !SwingUtilities.isEventDispatchThread()) {
+				queue.add(delivery);
+				if (!scheduled) {
+					scheduled = true;
+					SwingUtilities.invokeLater(drainer);
+				}
+				return;
+			}
+		}
+		delivery.run();
+	}
+
+	/**
+	 * Runs the queued deliveries until the queue is empty. If a delivery
+	 * throws an exception, the deliveries after it are kept and another drain
+	 * is posted to the event queue before the exception is passed on.
+	 */
+	private void drain() {
+		while (true) {
+			List<Runnable> batch;
+			synchronized (lock) {
+				if (queue.isEmpty()) {
+					scheduled = false;
+					return;
+				}
+				batch = queue;
+				queue = new ArrayList<Runnable>();
+			}
+			
+			int i = 0;
+			try {
+				for (; i < batch.size(); i++) {
+					batch.get(i).run();
+				}
+			} finally {
+				if (i < batch.size()) {
+					synchronized (lock) {
+						List<Runnable> remaining = new ArrayList<Runnable>(batch.subList(i + 1, batch.size()));
+						remaining.addAll(queue);
+						queue = remaining;
+						SwingUtilities.invokeLater(drainer);
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package ca.burdee.object.dispatch;
+
+import ca.burdee.object.BurdeeObject;
+
+/**
+ * This {@link BurdeeEventDispatcher} delivers each event immediately, on the
+ * thread that fired it. This is how events are delivered to a
+ * {@link ca.burdee.object.BurdeeListener} that is not wrapped in a
+ * {@link DispatchingBurdeeListener}.
+ */
+public class SynchronousEventDispatcher implements BurdeeEventDispatcher {
+
+	/**
+	 * The shared {@link SynchronousEventDispatcher}.
+	 * 
+	 * @see #getInstance()
+	 */
+	private static final SynchronousEventDispatcher INSTANCE = new SynchronousEventDispatcher();
+
+	/**
+	 * Gets the shared {@link SynchronousEventDispatcher}. It has no state, so
+	 * there is no need to create others.
+	 */
+	public static SynchronousEventDispatcher getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public void dispatch(BurdeeObject source, Runnable delivery) {
+		delivery.run();
+	}
+
+}
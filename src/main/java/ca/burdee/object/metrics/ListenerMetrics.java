@@ -0,0 +1,422 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import ca.burdee.object.BurdeeListener;
+
+/**
+ * Counts the invocations of listeners, such as {@link BurdeeListener}s, and
+ * records a latency histogram for each listener class, so that a slow
+ * listener can be found. Every invocation is counted, but only one in every
+ * {@link #getSampleInterval()} invocations of a listener class is timed, on
+ * average, to keep the overhead of {@link System#nanoTime()} low. The counts
+ * are kept in {@link LongAdder}s and the invocations to time are picked at
+ * random by each thread, so that threads invoking the same listener class do
+ * not contend on a shared counter.
+ * <p>
+ * The metrics are disabled unless the system property burdee.listenerMetrics
+ * is set to true, or they are turned on with {@link #setEnabled(boolean)}.
+ * While disabled, an invocation costs a single volatile read.
+ * <p>
+ * An invocation is recorded by surrounding it with {@link #start(Object)} and
+ * {@link #stop(Object, long)}:
+ * 
+ * <pre>
+ * long start = metrics.start(listener);
+ * listener.childAdded(evt);
+ * metrics.stop(listener, start);
+ * </pre>
+ * 
+ * The metrics are exposed through JMX by {@link #register()}, and can be
+ * logged periodically with {@link #startLogging(long)}.
+ */
+public final class ListenerMetrics implements ListenerMetricsMBean {
+
+	/**
+	 * The {@link ObjectName} that the metrics are registered under by
+	 * {@link #register()}.
+	 */
+	public static final String OBJECT_NAME = "ca.burdee:type=ListenerMetrics";
+
+	/**
+	 * The value returned by {@link #start(Object)} when the invocation is not
+	 * timed.
+	 */
+	public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+	/**
+	 * The number of buckets of each latency histogram.
+	 * 
+	 * @see #getLatencyHistogram(String)
+	 */
+	private static final int BUCKETS = 20;
+
+	/**
+	 * The default of {@link #getSampleInterval()}.
+	 */
+	private static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+	private static final Logger logger = Logger.getLogger(ListenerMetrics.class.getName());
+
+	/**
+	 * The single instance of {@link ListenerMetrics}. It is disabled unless
+	 * the system property burdee.listenerMetrics is set to true.
+	 */
+	private static final ListenerMetrics instance = new ListenerMetrics(
+			Boolean.getBoolean("burdee.listenerMetrics"));
+
+	/**
+	 * @see #isEnabled()
+	 */
+	private volatile boolean enabled;
+
+	/**
+	 * @see #getSampleInterval()
+	 */
+	private volatile int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+	/**
+	 * The recorded invocations of each listener class.
+	 */
+	private final ConcurrentMap<Class<?>, ListenerStats> stats = 
+		new ConcurrentHashMap<Class<?>, ListenerStats>();
+
+	/**
+	 * The {@link Timer} that logs the summary, if {@link #startLogging(long)}
+	 * has been called.
+	 */
+	private Timer loggingTimer;
+
+	private ListenerMetrics(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the single instance of {@link ListenerMetrics}.
+	 * 
+	 * @return The {@link ListenerMetrics}.
+	 */
+	public static ListenerMetrics getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Counts an invocation of a listener that is about to happen, and decides
+	 * whether it is timed.
+	 * 
+	 * @param listener
+	 *            The listener that is about to be invoked.
+	 * @return The value to pass to {@link #stop(Object, long)} once the
+	 *         invocation returns.
+	 */
+	public long start(Object listener) {
+		if (!enabled) {
+			return NOT_SAMPLED;
+		}
+		getStats(listener.getClass()).count.increment();
+		if (ThreadLocalRandom.current().nextInt(sampleInterval) != 0) {
+			return NOT_SAMPLED;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the latency of an invocation of a listener, if it was timed.
+	 * 
+	 * @param listener
+	 *            The listener that was invoked.
+	 * @param start
+	 *            The value returned by {@link #start(Object)} for the
+	 *            invocation.
+	 */
+	public void stop(Object listener, long start) {
+		if (start == NOT_SAMPLED) {
+			return;
+		}
+		long nanos = System.nanoTime() - start;
+		getStats(listener.getClass()).record(nanos);
+	}
+
+	/**
+	 * Gets the {@link ListenerStats} of a listener class, creating them if
+	 * the class has not been invoked before.
+	 */
+	private ListenerStats getStats(Class<?> listenerClass) {
+		ListenerStats listenerStats = stats.get(listenerClass);
+		if (listenerStats == null) {
+			listenerStats = new ListenerStats(listenerClass);
+			ListenerStats existing = stats.putIfAbsent(listenerClass, listenerStats);
+			if (existing != null) {
+				listenerStats = existing;
+			}
+		}
+		return listenerStats;
+	}
+
+	/**
+	 * Finds the {@link ListenerStats} of a listener class by name.
+	 * 
+	 * @return The {@link ListenerStats}, or null if the class has not been
+	 *         invoked.
+	 */
+	private ListenerStats findStats(String className) {
+		for (Map.Entry<Class<?>, ListenerStats> entry : stats.entrySet()) {
+			if (entry.getKey().getName().equals(className)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	@Override
+	public void setSampleInterval(int sampleInterval) {
+		if (sampleInterval < 1) {
+			throw new IllegalArgumentException("The sample interval must be at least 1, not " + 
+					sampleInterval + ".");
+		}
+		this.sampleInterval = sampleInterval;
+	}
+
+	@Override
+	public String[] getListenerClassNames() {
+		List<String> names = new ArrayList<String>();
+		for (Class<?> listenerClass : stats.keySet()) {
+			names.add(listenerClass.getName());
+		}
+		Collections.sort(names);
+		return names.toArray(new String[names.size()]);
+	}
+
+	@Override
+	public long getInvocationCount(String className) {
+		ListenerStats listenerStats = findStats(className);
+		return listenerStats == null ? 0 : listenerStats.count.sum();
+	}
+
+	@Override
+	public long[] getLatencyHistogram(String className) {
+		ListenerStats listenerStats = findStats(className);
+		if (listenerStats == null) {
+			return new long[0];
+		}
+		long[] histogram = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram[i] = listenerStats.histogram.get(i);
+		}
+		return histogram;
+	}
+
+	@Override
+	public String getSummary() {
+		List<ListenerStats> sorted = new ArrayList<ListenerStats>(stats.values());
+		Collections.sort(sorted, new Comparator<ListenerStats>() {
+			@Override
+			public int compare(ListenerStats s1, ListenerStats s2) {
+				long total1 = s1.totalNanos.sum();
+				long total2 = s2.totalNanos.sum();
+				return total1 < total2 ? 1 : (total1 == total2 ? 0 : -1);
+			}
+		});
+		
+		StringBuilder sb = new StringBuilder();
+		for (ListenerStats listenerStats : sorted) {
+			if (sb.length() > 0) {
+				sb.append('\n');
+			}
+			listenerStats.appendSummary(sb);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void reset() {
+		stats.clear();
+	}
+
+	/**
+	 * Registers these metrics with the platform MBean server under
+	 * {@link #OBJECT_NAME}. Nothing happens if they are already registered.
+	 */
+	public void register() {
+		try {
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Unable to register the listener metrics with JMX.", e);
+		}
+	}
+
+	/**
+	 * Starts logging the summary of these metrics periodically, at the INFO
+	 * level. Nothing is logged while the metrics are disabled or while no
+	 * listener has been invoked. Calling this method again changes the
+	 * period.
+	 * 
+	 * @param periodMillis
+	 *            The time between two summaries, in milliseconds.
+	 */
+	public synchronized void startLogging(long periodMillis) {
+		stopLogging();
+		loggingTimer = new Timer("Burdee listener metrics", true);
+		loggingTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				if (enabled && !stats.isEmpty() && logger.isLoggable(Level.INFO)) {
+					logger.info("Listener invocations, slowest first:\n" + getSummary());
+				}
+			}
+		}, periodMillis, periodMillis);
+	}
+
+	/**
+	 * Stops logging the summary of these metrics.
+	 */
+	public synchronized void stopLogging() {
+		if (loggingTimer != null) {
+			loggingTimer.cancel();
+			loggingTimer = null;
+		}
+	}
+
+	/**
+	 * The recorded invocations of a single listener class.
+	 */
+	private static class ListenerStats {
+
+		private final Class<?> listenerClass;
+
+		/**
+		 * The number of invocations, timed or not.
+		 */
+		private final LongAdder count = new LongAdder();
+
+		/**
+		 * The number of timed invocations.
+		 */
+		private final LongAdder samples = new LongAdder();
+
+		/**
+		 * The total latency of the timed invocations.
+		 */
+		private final LongAdder totalNanos = new LongAdder();
+
+		/**
+		 * The highest latency of a timed invocation.
+		 */
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		/**
+		 * The latency histogram of the timed invocations.
+		 * 
+		 * @see ListenerMetrics#getLatencyHistogram(String)
+		 */
+		private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+		private ListenerStats(Class<?> listenerClass) {
+			this.listenerClass = listenerClass;
+		}
+
+		/**
+		 * Records the latency of a timed invocation.
+		 */
+		private void record(long nanos) {
+			samples.increment();
+			totalNanos.add(nanos);
+			long max;
+			do {
+				max = maxNanos.get();
+			} while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+			
+			long micros = nanos / 1000;
+			int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+			histogram.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+		}
+
+		/**
+		 * Gets the upper bound, in microseconds, of the histogram bucket that
+		 * contains the given fraction of the timed invocations.
+		 */
+		private long getPercentileMicros(double fraction) {
+			long threshold = (long) Math.ceil(samples.sum() * fraction);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += histogram.get(i);
+				if (seen >= threshold) {
+					return 1L << i;
+				}
+			}
+			return 1L << (BUCKETS - 1);
+		}
+
+		/**
+		 * Appends a line that summarizes these stats.
+		 */
+		private void appendSummary(StringBuilder sb) {
+			long sampleCount = samples.sum();
+			sb.append(listenerClass.getName()).append(": ");
+			sb.append(count.sum()).append(" invocations");
+			if (sampleCount > 0) {
+				sb.append(", ").append(sampleCount).append(" timed");
+				sb.append(", mean ").append(totalNanos.sum() / sampleCount / 1000).append("us");
+				sb.append(", p50 <").append(getPercentileMicros(0.5)).append("us");
+				sb.append(", p99 <").append(getPercentileMicros(0.99)).append("us");
+				sb.append(", max ").append(maxNanos.get() / 1000).append("us");
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.metrics;
+
+/**
+ * The JMX management interface of {@link ListenerMetrics}.
+ */
+public interface ListenerMetricsMBean {
+
+	/**
+	 * Checks whether listener invocations are being counted and timed.
+	 * 
+	 * @return true if the metrics are enabled.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Turns the counting and timing of listener invocations on or off.
+	 * 
+	 * @param enabled
+	 *            true to enable the metrics.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Gets how often listener invocations are timed.
+	 * 
+	 * @return The number of invocations of a listener class for each one
+	 *         that is timed, on average.
+	 */
+	int getSampleInterval();
+
+	/**
+	 * Sets how often listener invocations are timed.
+	 * 
+	 * @param sampleInterval
+	 *            The number of invocations of a listener class for each one
+	 *            that is timed, on average. 1 times every invocation.
+	 */
+	void setSampleInterval(int sampleInterval);
+
+	/**
+	 * Gets the names of the listener classes that have been invoked.
+	 * 
+	 * @return The listener class names.
+	 */
+	String[] getListenerClassNames();
+
+	/**
+	 * Gets the number of times a listener class has been invoked.
+	 * 
+	 * @param className
+	 *            The name of the listener class.
+	 * @return The number of invocations, or 0 if the class has not been
+	 *         invoked.
+	 */
+	long getInvocationCount(String className);
+
+	/**
+	 * Gets the latency histogram of the timed invocations of a listener class.
+	 * Bucket 0 counts the invocations that took less than a microsecond, and
+	 * bucket i counts those that took from 2^(i-1) up to 2^i microseconds.
+	 * The last bucket also counts everything slower.
+	 * 
+	 * @param className
+	 *            The name of the listener class.
+	 * @return The histogram buckets, or an empty array if the class has not
+	 *         been invoked.
+	 */
+	long[] getLatencyHistogram(String className);
+
+	/**
+	 * Gets a summary of the invocation counts and latencies of every listener
+	 * class, slowest first.
+	 * 
+	 * @return The summary, one line per listener class.
+	 */
+	String getSummary();
+
+	/**
+	 * Discards all of the counts and latencies recorded so far.
+	 */
+	void reset();
+
+}
@@ -18,7 +18,7 @@
 
 package ca.burdee.object.util;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -48,13 +48,15 @@ public class BurdeeUtils {
 	 * @return The unmodifiable {@link List} of {@link BurdeeObject} ancestors.
 	 */
 	public static List<BurdeeObject> getAncestorList(BurdeeObject descendant) {
-		List<BurdeeObject> ancestorList = new ArrayList<BurdeeObject>();
-		BurdeeObject ancestor = descendant;
-		while (ancestor != null) {
-			ancestorList.add(0, ancestor);
-			ancestor = ancestor.getParent();
+		int depth = 0;
+		for (BurdeeObject ancestor = descendant; ancestor != null; ancestor = ancestor.getParent()) {
+			depth++;
+		}
+		BurdeeObject[] ancestors = new BurdeeObject[depth];
+		for (BurdeeObject ancestor = descendant; ancestor != null; ancestor = ancestor.getParent()) {
+			ancestors[--depth] = ancestor;
 		}
-		return Collections.unmodifiableList(ancestorList);
+		return Collections.unmodifiableList(Arrays.asList(ancestors));
 	}
 
 	/**
@@ -97,14 +99,18 @@ public class BurdeeUtils {
 
 	/**
 	 * Adds a {@link BurdeeListener} to a {@link BurdeeObject} and all of its
-	 * descendants.
+	 * descendants. Note that this registers the listener on every node, and
+	 * descendants added afterwards are not covered.
 	 * 
 	 * @param bo
 	 *            The {@link BurdeeObject} to add the {@link BurdeeListener} to
 	 *            its hierarchy.
 	 * @param l
 	 *            The {@link BurdeeListener} to add.
+	 * @deprecated Use {@link BurdeeObject#addHierarchyListener(BurdeeListener)}
+	 *             instead, which needs a single registration.
 	 */
+	@Deprecated
 	public static void listenToHierarchy(BurdeeObject bo, BurdeeListener l) {
 		bo.addBurdeeListener(l);
 		for (BurdeeObject child : bo.getChildren()) {
@@ -121,7 +127,11 @@ public class BurdeeUtils {
 	 *            from its hierarchy.
 	 * @param l
 	 *            The {@link BurdeeListener} to remove.
+	 * @deprecated Use
+	 *             {@link BurdeeObject#removeHierarchyListener(BurdeeListener)}
+	 *             instead.
 	 */
+	@Deprecated
 	public static void unlistenFromHierarchy(BurdeeObject bo, BurdeeListener l) {
 		bo.removeBurdeeListener(l);
 		for (BurdeeObject child : bo.getChildren()) {
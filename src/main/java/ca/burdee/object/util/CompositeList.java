@@ -0,0 +1,108 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * This read-only {@link List} is a live view of a fixed number of other
+ * {@link List}s, one after the other. Nothing is copied; changes to the
+ * underlying {@link List}s show through immediately. {@link #size()} and
+ * {@link #get(int)} only visit each underlying {@link List} once, so they
+ * take constant time as long as the underlying {@link List}s are
+ * {@link RandomAccess} themselves. Like the {@link List}s it is made of, this
+ * class is not synchronized.
+ * 
+ * @param <E>
+ *            The type of element in this {@link List}.
+ */
+public class CompositeList<E> extends AbstractList<E> implements RandomAccess {
+
+	/**
+	 * The underlying {@link List}s, in order. They are copied out of the
+	 * array passed to the constructor rather than keeping a clone of it,
+	 * since an array of a generic type cannot be checked at runtime.
+	 */
+	private final List<List<? extends E>> parts;
+
+	/**
+	 * Creates a new {@link CompositeList}.
+	 * 
+	 * @param parts
+	 *            The underlying {@link List}s, in the order that their
+	 *            elements appear in this {@link List}.
+	 */
+	@SafeVarargs
+	public CompositeList(List<? extends E>... parts) {
+		this.parts = new ArrayList<List<? extends E>>(parts.length);
+		for (List<? extends E> part : parts) {
+			this.parts.add(part);
+		}
+	}
+
+	@Override
+	public E get(int index) {
+		if (index >= 0) {
+			int offset = index;
+			for (int i = 0; i < parts.size(); i++) {
+				List<? extends E> part = parts.get(i);
+				int size = part.size();
+				if (offset < size) {
+					return part.get(offset);
+				}
+				offset -= size;
+			}
+		}
+		throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < parts.size(); i++) {
+			List<? extends E> part = parts.get(i);
+			size += part.size();
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (int i = 0; i < parts.size(); i++) {
+			if (!parts.get(i).isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		for (int i = 0; i < parts.size(); i++) {
+			if (parts.get(i).contains(o)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
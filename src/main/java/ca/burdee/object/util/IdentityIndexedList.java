@@ -0,0 +1,168 @@
+/*
+ * Burdee - an instant messaging client
+ * Copyright (C) 2010  Terry Yiu
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ca.burdee.object.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * This {@link List} keeps an identity based index of the position of each of
+ * its elements alongside the elements themselves. This makes
+ * {@link #contains(Object)}, {@link #indexOf(Object)}, and
+ * {@link #remove(Object)} constant time lookups instead of linear scans, and
+ * appending or removing the last element constant time as well. Inserting or
+ * removing elsewhere costs the same as it would for an {@link ArrayList}.
+ * <p>
+ * Elements are compared by identity (==) rather than
+ * {@link Object#equals(Object)}, and an element can only appear once in the
+ * {@link List}. Null elements are not permitted. Like {@link ArrayList}, this
+ * class is not synchronized.
+ * 
+ * @param <E>
+ *            The type of element in this {@link List}.
+ */
+public class IdentityIndexedList<E> extends AbstractList<E> implements RandomAccess {
+
+	/**
+	 * The elements of this {@link List}, in order.
+	 */
+	private final List<E> elements = new ArrayList<E>();
+
+	/**
+	 * The position of each element within {@link #elements}.
+	 */
+	private final Map<E, Integer> positions = new IdentityHashMap<E, Integer>();
+
+	@Override
+	public E get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return positions.containsKey(o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		Integer position = positions.get(o);
+		if (position == null) {
+			return -1;
+		}
+		return position;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Inserts an element at the given index.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             Thrown if the element is null or is already in this
+	 *             {@link List}.
+	 */
+	@Override
+	public void add(int index, E element) {
+		if (element == null) {
+			throw new IllegalArgumentException("Cannot add a null element.");
+		} else if (positions.containsKey(element)) {
+			throw new IllegalArgumentException("Cannot add " + element + 
+					" because it already exists in the list.");
+		}
+		elements.add(index, element);
+		positions.put(element, index);
+		reindexFrom(index + 1);
+		modCount++;
+	}
+
+	@Override
+	public E remove(int index) {
+		E element = elements.remove(index);
+		positions.remove(element);
+		reindexFrom(index);
+		modCount++;
+		return element;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Replaces the element at the given index.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             Thrown if the element is null or is already elsewhere in
+	 *             this {@link List}.
+	 */
+	@Override
+	public E set(int index, E element) {
+		if (element == null) {
+			throw new IllegalArgumentException("Cannot set a null element.");
+		}
+		Integer position = positions.get(element);
+		if (position != null && position != index) {
+			throw new IllegalArgumentException("Cannot set " + element + 
+					" because it already exists in the list.");
+		}
+		E oldElement = elements.set(index, element);
+		positions.remove(oldElement);
+		positions.put(element, index);
+		return oldElement;
+	}
+
+	@Override
+	public void clear() {
+		elements.clear();
+		positions.clear();
+		modCount++;
+	}
+
+	/**
+	 * Updates the recorded position of every element from the given index to
+	 * the end of the {@link List}.
+	 * 
+	 * @param fromIndex
+	 *            The first index whose element may have moved.
+	 */
+	private void reindexFrom(int fromIndex) {
+		for (int i = fromIndex; i < elements.size(); i++) {
+			positions.put(elements.get(i), i);
+		}
+	}
+
+}
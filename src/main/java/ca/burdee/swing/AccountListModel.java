@@ -18,20 +18,20 @@
 
 package ca.burdee.swing;
 
-import java.beans.PropertyChangeEvent;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.AbstractListModel;
 import javax.swing.ListModel;
 import javax.swing.SwingWorker;
 
-import ca.burdee.object.AbstractBurdeeListener;
-import ca.burdee.object.BurdeeListener;
+import ca.burdee.object.BurdeeObject;
+import ca.burdee.object.BurdeeProperty;
+import ca.burdee.object.BurdeePropertyListener;
 import ca.burdee.object.BurdeeRoot;
-import ca.burdee.object.BurdeeObjectUUIDComparator;
 import ca.burdee.object.account.Account;
 
 /**
@@ -58,14 +58,26 @@ public class AccountListModel extends AbstractListModel {
 	private final List<Account> accounts = new ArrayList<Account>();
 
 	/**
-	 * This {@link BurdeeListener} listens to changes of an {@link Account}'s
-	 * name and notifies that the list model has changed.
+	 * Maps each {@link Account} copy in {@link #accounts} to the
+	 * {@link BurdeeObject#getId()} of the actual {@link Account} under the
+	 * {@link BurdeeRoot} that it was copied from or applied to. Copies of
+	 * newly created {@link Account}s are not in this map until
+	 * {@link #applyChanges()} adds them to the {@link BurdeeRoot}. The actual
+	 * {@link Account} is resolved through {@link BurdeeRoot#getObject(long)}.
 	 */
-	private final BurdeeListener accountListener = new AbstractBurdeeListener() {
+	private final Map<Account, Long> sourceIds = 
+		Collections.synchronizedMap(new IdentityHashMap<Account, Long>());
+
+	/**
+	 * This {@link BurdeePropertyListener} listens to changes of an
+	 * {@link Account}'s name and notifies that the list model has changed.
+	 */
+	private final BurdeePropertyListener accountListener = new BurdeePropertyListener() {
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
-			if (evt.getPropertyName().equals("name") && getAccounts().contains(evt.getSource())) {
-				int index = getAccounts().indexOf(evt.getSource());
+		public void propertyChanged(BurdeeObject source, BurdeeProperty<?> property,
+				Object oldValue, Object newValue) {
+			int index = accounts.indexOf(source);
+			if (index >= 0) {
 				fireContentsChanged(AccountListModel.this, index, index);
 			}
 		}
@@ -85,8 +97,9 @@ public class AccountListModel extends AbstractListModel {
 				Account accountCopy;
 				accountCopy = account.getClass().newInstance();
 				accountCopy.updateToMatch(account);
-				accountCopy.addBurdeeListener(accountListener);
+				accountCopy.addPropertyListener(BurdeeObject.NAME, accountListener);
 				accounts.add(accountCopy);
+				sourceIds.put(accountCopy, account.getId());
 			}
 		} catch (InstantiationException e) {
 			throw new RuntimeException(e);
@@ -116,47 +129,32 @@ public class AccountListModel extends AbstractListModel {
 			protected Boolean doInBackground() throws Exception {
 				if (hasUnsavedChanges()) {
 					List<Account> source = new ArrayList<Account>(accounts);
-					List<Account> target = new ArrayList<Account>(root.getChildren(Account.class));
-
-					Comparator<Account> comparator = new BurdeeObjectUUIDComparator<Account>();
-					Collections.sort(source, comparator);
-					Collections.sort(target, comparator);
+					List<Account> removedTargets = new ArrayList<Account>(root.getChildren(Account.class));
 					
-					for (int i = 0, j = 0; i < source.size() || j < target.size();) {
-						Account sourceAccount = null;
-						Account targetAccount = null;
-						int compare = 0;
-						
-						if (i < source.size()) {
-							sourceAccount = source.get(i);
-						} else {
-							compare = 1;
-						}
-						
-						if (j < target.size()) {
-							targetAccount = target.get(j);
-						} else {
-							compare = -1;
-						}
-						
-						if (compare == 0) {
-							compare = comparator.compare(sourceAccount, targetAccount);
+					// All of the additions, removals, and updates are applied in a
+					// single transaction so that listeners on the root are
+					// notified once.
+					root.begin();
+					try {
+						for (Account sourceAccount : source) {
+							Account targetAccount = getTarget(sourceAccount);
+							if (targetAccount == null) {
+								Account accountCopy = sourceAccount.getClass().newInstance();
+								accountCopy.updateToMatch(sourceAccount);
+								accountCopy.attachConnectionListener();
+								root.addChild(accountCopy);
+								sourceIds.put(sourceAccount, accountCopy.getId());
+							} else {
+								targetAccount.updateToMatch(sourceAccount);
+								removedTargets.remove(targetAccount);
+							}
 						}
 						
-						if (compare < 0) {
-							Account accountCopy = sourceAccount.getClass().newInstance();
-							accountCopy.updateToMatch(sourceAccount);
-							accountCopy.attachConnectionListener();
-							root.addChild(accountCopy);
-							i++;
-						} else if (compare > 0) {
+						for (Account targetAccount : removedTargets) {
 							root.removeChild(targetAccount);
-							j++;
-						} else {
-							targetAccount.updateToMatch(sourceAccount);
-							i++;
-							j++;
 						}
+					} finally {
+						root.commit();
 					}
 				}
 				return true;
@@ -181,16 +179,9 @@ public class AccountListModel extends AbstractListModel {
 			return true;
 		}
 		
-		List<Account> source = new ArrayList<Account>(accounts);
-		Comparator<Account> comparator = new BurdeeObjectUUIDComparator<Account>();
-		Collections.sort(source, comparator);
-		Collections.sort(target, comparator);
-		
-		for (int i = 0; i < source.size(); i++) {
-			Account sourceAccount = source.get(i);
-			Account targetAccount = target.get(i);
-			int compare = comparator.compare(sourceAccount, targetAccount);
-			if (compare != 0) {
+		for (Account sourceAccount : new ArrayList<Account>(accounts)) {
+			Account targetAccount = getTarget(sourceAccount);
+			if (targetAccount == null) {
 				return true;
 			} else if (!sourceAccount.equals(targetAccount)) {
 				return true;
@@ -200,6 +191,28 @@ public class AccountListModel extends AbstractListModel {
 		return false;
 	}
 
+	/**
+	 * Gets the actual {@link Account} under the {@link BurdeeRoot} that an
+	 * {@link Account} copy in this model corresponds to.
+	 * 
+	 * @param account
+	 *            The {@link Account} copy in this model.
+	 * @return The actual {@link Account}, or null if the copy is for a new
+	 *         {@link Account} or the actual {@link Account} has been removed
+	 *         from the {@link BurdeeRoot}.
+	 */
+	private Account getTarget(Account account) {
+		Long id = sourceIds.get(account);
+		if (id == null) {
+			return null;
+		}
+		BurdeeObject target = root.getObject(id);
+		if (target instanceof Account && target.getParent() == root) {
+			return (Account) target;
+		}
+		return null;
+	}
+
 	/**
 	 * Gets the unmodifiable {@link List} of {@link Account}s this model is
 	 * using.
@@ -229,7 +242,7 @@ public class AccountListModel extends AbstractListModel {
 	 *            The index in the model to add the {@link Account} to.
 	 */
 	public void addElement(Account account, int index) {
-		account.addBurdeeListener(accountListener);
+		account.addPropertyListener(BurdeeObject.NAME, accountListener);
 		accounts.add(index, account);
 		fireIntervalAdded(this, index, index);
 	}
@@ -242,7 +255,8 @@ public class AccountListModel extends AbstractListModel {
 	 */
 	public void removeElementAt(int index) {
 		Account account = accounts.remove(index);
-		account.removeBurdeeListener(accountListener);
+		account.removePropertyListener(BurdeeObject.NAME, accountListener);
+		sourceIds.remove(account);
 		fireIntervalRemoved(this, index, index);
 	}
 	
@@ -18,12 +18,18 @@
 
 package ca.burdee.swing;
 
+import java.awt.BorderLayout;
 import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.Collections;
+import java.util.List;
 
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
@@ -31,16 +37,22 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
 import javax.swing.JTree;
-import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.tree.TreePath;
 
 import ca.burdee.object.AbstractBurdeeListener;
 import ca.burdee.object.BurdeeChildEvent;
+import ca.burdee.object.BurdeeEventFilter;
 import ca.burdee.object.BurdeeListener;
 import ca.burdee.object.BurdeeRoot;
 import ca.burdee.object.account.Account;
 import ca.burdee.object.contact.Contact;
 import ca.burdee.object.contact.Conversation;
+import ca.burdee.object.dispatch.DispatchingBurdeeListener;
+import ca.burdee.object.dispatch.SwingEventDispatcher;
 import ca.burdee.swing.action.AboutAction;
 import ca.burdee.swing.action.ExitAction;
 import ca.burdee.swing.action.ManageAccountsAction;
@@ -55,6 +67,17 @@ public class BurdeeFrame extends JFrame {
 	 */
 	private JTree contactList;
 
+	/**
+	 * The {@link JTextField} above the contact list that selects the
+	 * {@link Contact}s matching its text as it is typed.
+	 */
+	private JTextField searchField;
+
+	/**
+	 * The maximum number of {@link Contact}s that a search selects.
+	 */
+	private static final int SEARCH_LIMIT = 50;
+
 	/**
 	 * The {@link BurdeeRoot} object to use as the root of the contact list
 	 * tree.
@@ -91,38 +114,30 @@ public class BurdeeFrame extends JFrame {
 	public static boolean MAC_OS_X = (System.getProperty("os.name").toLowerCase().startsWith("mac os x"));
 	
 	/**
-	 * This {@link BurdeeListener} listens to newly created {@link Conversation}s.
+	 * This {@link BurdeeListener} listens to newly created {@link Conversation}s
+	 * under any {@link Account}. It is attached to the hierarchy of the
+	 * {@link BurdeeRoot} through {@link #edtConversationListener}, and only
+	 * receives child added events for {@link Conversation}s.
 	 */
 	private final BurdeeListener conversationListener = new AbstractBurdeeListener() {
 		
 		@Override
-		public void childAdded(final BurdeeChildEvent evt) {
-			if (Account.class.isAssignableFrom(evt.getChild().getClass())) {
-				evt.getChild().addBurdeeListener(this);
-			} else if (conversationFrame == null && 
-					Account.class.isAssignableFrom(evt.getSource().getClass()) &&
-					evt.getChild() instanceof Conversation) {
-				
-				// We want to create the ConversationFrame on the event
-				// dispatching thread or else the application will be in an
-				// inconsistent state with listeners.
-				SwingUtilities.invokeLater(new Runnable() {
-					
-					@Override
-					public void run() {
-						showConversation((Conversation) evt.getChild());
-					}
-				});
-			}
-		}
-		
-		public void childRemoved(BurdeeChildEvent evt) {
-			if (Account.class.isAssignableFrom(evt.getChild().getClass())) {
-				evt.getChild().removeBurdeeListener(this);
+		public void childAdded(BurdeeChildEvent evt) {
+			if (conversationFrame == null) {
+				showConversation((Conversation) evt.getChild());
 			}
 		}
 	};
 
+	/**
+	 * Delivers the events of {@link #conversationListener} on the event
+	 * dispatching thread, so that the {@link ConversationFrame} is always
+	 * created there, even when a {@link Conversation} is started by a network
+	 * thread.
+	 */
+	private final BurdeeListener edtConversationListener = 
+		new DispatchingBurdeeListener(conversationListener, SwingEventDispatcher.getInstance());
+
 	/**
 	 * Creates a new {@link BurdeeFrame}.
 	 * 
@@ -134,10 +149,8 @@ public class BurdeeFrame extends JFrame {
 		super("Burdee");
 		this.root = root;
 		
-		root.addBurdeeListener(conversationListener);
-		for (Account account : root.getChildren(Account.class)) {
-			account.addBurdeeListener(conversationListener);
-		}
+		root.addHierarchyListener(edtConversationListener, 
+				BurdeeEventFilter.childAdded(Conversation.class));
 		
 		buildUI();
 	}
@@ -147,6 +160,7 @@ public class BurdeeFrame extends JFrame {
 	 */
 	private void buildUI() {
 		buildMenuBar();
+		buildSearchField();
 		buildContactList();
 		setPreferredSize(new Dimension(250, 500));
 	}
@@ -208,6 +222,70 @@ public class BurdeeFrame extends JFrame {
 		}
 	}
 	
+	/**
+	 * Builds the search field above the contact list. Typing selects the
+	 * matching {@link Contact}s in the contact list, best match first, and
+	 * pressing enter starts a {@link Conversation} with the best match.
+	 * Pressing escape clears the search.
+	 */
+	private void buildSearchField() {
+		searchField = new JTextField();
+		searchField.setToolTipText("Search contacts");
+		searchField.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				selectSearchResults();
+			}
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				selectSearchResults();
+			}
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				selectSearchResults();
+			}
+		});
+		searchField.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				List<Contact> matches = root.searchContacts(searchField.getText(), 1);
+				if (!matches.isEmpty()) {
+					showConversation(matches.get(0));
+				}
+			}
+		});
+		searchField.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+					searchField.setText("");
+				}
+			}
+		});
+		
+		add(searchField, BorderLayout.NORTH);
+	}
+
+	/**
+	 * Selects the {@link Contact}s that match the text of the
+	 * {@link #searchField} in the contact list, and scrolls to the best
+	 * match.
+	 */
+	private void selectSearchResults() {
+		List<Contact> matches = root.searchContacts(searchField.getText(), SEARCH_LIMIT);
+		if (matches.isEmpty()) {
+			contactList.clearSelection();
+			return;
+		}
+		
+		TreePath[] paths = new TreePath[matches.size()];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = matches.get(i).getTreePath();
+		}
+		contactList.setSelectionPaths(paths);
+		contactList.scrollPathToVisible(paths[0]);
+	}
+
 	/**
 	 * Builds the contact list tree.
 	 */
@@ -223,28 +301,30 @@ public class BurdeeFrame extends JFrame {
 					Object selectedComponent = 
 						contactList.getSelectionPath().getLastPathComponent();
 					if (selectedComponent instanceof Contact) {
-						Contact contact = (Contact) selectedComponent;
-						Conversation conversation = null;
-						
-						for (Conversation c : contact.getParent().getChildren(Conversation.class)) {
-							if (c.getContacts().size() == 1 && c.getContacts().contains(contact)) {
-								conversation = c;
-								break;
-							}
-						}
-						
-						if (conversation == null) {
-							conversation = contact.getParent().createConversation(
-									Collections.singletonList(contact));
-						}
-						
-						showConversation(conversation);
+						showConversation((Contact) selectedComponent);
 					}
 				}
 			}
 		});
 		
-		add(new JScrollPane(contactList));
+		add(new JScrollPane(contactList), BorderLayout.CENTER);
+	}
+
+	/**
+	 * Displays the one-on-one {@link Conversation} with a {@link Contact},
+	 * creating it if it does not exist yet.
+	 * 
+	 * @param contact
+	 *            The {@link Contact} to have the {@link Conversation} with.
+	 */
+	private void showConversation(Contact contact) {
+		Conversation conversation = contact.getParent().findConversation(contact);
+		if (conversation == null) {
+			conversation = contact.getParent().createConversation(
+					Collections.singletonList(contact));
+		}
+		
+		showConversation(conversation);
 	}
 
 	/**
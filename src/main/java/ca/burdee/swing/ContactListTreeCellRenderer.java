@@ -28,6 +28,7 @@ import javax.swing.tree.TreeCellRenderer;
 import ca.burdee.object.BurdeeObject;
 import ca.burdee.object.BurdeeRoot;
 import ca.burdee.object.account.Account;
+import ca.burdee.object.account.ConnectionState;
 import ca.burdee.object.contact.Contact;
 import ca.burdee.object.contact.ContactCategory;
 import ca.burdee.object.contact.Status;
@@ -101,6 +102,12 @@ public class ContactListTreeCellRenderer extends DefaultTreeCellRenderer {
 		
 		if (Account.class.isAssignableFrom(value.getClass())) {
 			setIcon(ACCOUNT_ICON);
+			
+			// Only the stages on the way to or from a connection are shown.
+			ConnectionState state = ((Account) value).getConnectionState();
+			if (state != ConnectionState.CONNECTED && state != ConnectionState.DISCONNECTED) {
+				setText(getText() + " (" + state.name().toLowerCase() + ")");
+			}
 		} else if (value instanceof ContactCategory) {
 			setIcon(CONTACT_CATEGORY_ICON);
 		} else if (value instanceof Contact) {
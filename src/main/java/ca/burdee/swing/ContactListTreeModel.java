@@ -21,7 +21,10 @@ package ca.burdee.swing;
 import java.beans.PropertyChangeEvent;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EventObject;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
@@ -30,15 +33,19 @@ import javax.swing.tree.TreePath;
 
 import ca.burdee.object.AbstractBurdeeListener;
 import ca.burdee.object.BurdeeChildEvent;
+import ca.burdee.object.BurdeeChildEvent.EventType;
+import ca.burdee.object.BurdeeEventFilter;
 import ca.burdee.object.BurdeeListener;
 import ca.burdee.object.BurdeeObject;
 import ca.burdee.object.BurdeeObjectNameComparator;
 import ca.burdee.object.BurdeeRoot;
+import ca.burdee.object.BurdeeTransactionEvent;
 import ca.burdee.object.account.Account;
 import ca.burdee.object.contact.Contact;
 import ca.burdee.object.contact.ContactCategory;
 import ca.burdee.object.contact.Conversation;
-import ca.burdee.object.util.BurdeeUtils;
+import ca.burdee.object.dispatch.DispatchingBurdeeListener;
+import ca.burdee.object.dispatch.SwingEventDispatcher;
 
 /**
  * This {@link TreeModel} defines how a contact list tree is laid out. Note that
@@ -53,6 +60,22 @@ import ca.burdee.object.util.BurdeeUtils;
  */
 public class ContactListTreeModel implements TreeModel {
 
+	/**
+	 * The events that affect the contact list tree: child events for the
+	 * object types shown in the tree, and all property changes.
+	 */
+	private static final BurdeeEventFilter TREE_EVENTS = 
+		BurdeeEventFilter.childEvents(Account.class)
+			.or(BurdeeEventFilter.childEvents(ContactCategory.class))
+			.or(BurdeeEventFilter.childEvents(Contact.class))
+			.or(BurdeeEventFilter.PROPERTY_CHANGES);
+
+	/**
+	 * The order of the children of each node of the tree.
+	 */
+	private static final BurdeeObjectNameComparator<BurdeeObject> NAME_ORDER = 
+		new BurdeeObjectNameComparator<BurdeeObject>();
+
 	/**
 	 * The {@link BurdeeRoot} object that is the top object of this
 	 * {@link TreeModel}.
@@ -65,63 +88,143 @@ public class ContactListTreeModel implements TreeModel {
 	 */
 	private final List<TreeModelListener> treeModelListeners = new ArrayList<TreeModelListener>();
 
+	/**
+	 * The children of the {@link BurdeeRoot} and of each {@link Account} in
+	 * the order they are shown in the tree, without {@link Conversation}s.
+	 * They are sorted the first time they are needed, and dropped by
+	 * {@link #accountAdditionListener} when a child is added, removed, moved
+	 * or renamed, so that painting the tree does not sort on every call. Like
+	 * the rest of this model, it is only used on the event dispatching
+	 * thread.
+	 * 
+	 * @see #getSortedChildren(Object)
+	 */
+	private final Map<Object, List<BurdeeObject>> sortedChildren = 
+		new IdentityHashMap<Object, List<BurdeeObject>>();
+
 	/**
 	 * This {@link BurdeeListener} listens to added and removed {@link Account}
 	 * s, {@link Contact}s, and {@link ContactCategory}s. It also listens to any
 	 * property changes on any of these objects. On these events, the tree node
-	 * for that object is refreshed.
+	 * for that object is refreshed. It is attached once to the hierarchy of the
+	 * {@link BurdeeRoot} through {@link #edtAccountAdditionListener}, with
+	 * {@link #TREE_EVENTS} so that it never receives the child events of
+	 * {@link Conversation}s.
 	 */
 	private final BurdeeListener accountAdditionListener = new AbstractBurdeeListener() {
 		@Override
 		public void childAdded(BurdeeChildEvent evt) {
-			if (evt.getSource() instanceof Conversation || 
-					evt.getChild() instanceof Conversation) {
-				return;
+			// The path is taken from the parent rather than the child, since
+			// the child may have been moved or removed by the time this event
+			// is delivered on the event dispatching thread.
+			fireTreeStructureChanged(evt.getSource());
+		}
+		@Override
+		public void childRemoved(BurdeeChildEvent evt) {
+			for (BurdeeObject child : evt.getChildren()) {
+				sortedChildren.remove(child);
 			}
-			
-			BurdeeUtils.listenToHierarchy(evt.getChild(), this);
-			List<BurdeeObject> ancestorList = new ArrayList<BurdeeObject>(BurdeeUtils.getAncestorList(evt.getChild()));
-			ancestorList.remove(evt.getChild());
-			Object[] ancestorArray = ancestorList.toArray();
-			TreeModelEvent event = new TreeModelEvent(this, ancestorArray);
-			
-			for (TreeModelListener l : treeModelListeners) {
-				l.treeStructureChanged(event);
+			// The path is taken from the parent rather than the child, since
+			// the child may have been moved or removed by the time this event
+			// is delivered on the event dispatching thread.
+			fireTreeStructureChanged(evt.getSource());
+		}
+		@Override
+		public void childMoved(BurdeeChildEvent evt) {
+			// A move within one parent is a single relocation under that
+			// parent. A move between parents also changes the old parent.
+			fireTreeStructureChanged(evt.getSource());
+			if (evt.getOldParent() != evt.getSource()) {
+				fireTreeStructureChanged(evt.getOldParent());
 			}
 		}
 		@Override
-		public void childRemoved(BurdeeChildEvent evt) {
-			BurdeeUtils.unlistenFromHierarchy(evt.getChild(), this);
-			
-			if (evt.getSource() instanceof Conversation || 
-					evt.getChild() instanceof Conversation) {
+		public void propertyChange(PropertyChangeEvent evt) {
+			if (evt.getSource() instanceof Conversation) {
 				return;
 			}
 			
-			List<BurdeeObject> ancestorList = new ArrayList<BurdeeObject>(BurdeeUtils.getAncestorList(evt.getChild()));
-			ancestorList.remove(evt.getChild());
-			Object[] ancestorArray = ancestorList.toArray();
-			TreeModelEvent event = new TreeModelEvent(this, ancestorArray);
+			dropSortOrder(evt);
+			TreeModelEvent event = new TreeModelEvent(this, 
+					((BurdeeObject) evt.getSource()).getTreePath());
 			
 			for (TreeModelListener l : treeModelListeners) {
-				l.treeStructureChanged(event);
+				l.treeNodesChanged(event);
 			}
 		}
 		@Override
-		public void propertyChange(PropertyChangeEvent evt) {
+		public void transactionCommitted(BurdeeTransactionEvent evt) {
 			if (evt.getSource() instanceof Conversation) {
 				return;
 			}
 			
-			Object[] ancestorArray = BurdeeUtils.getAncestorList(
-					(BurdeeObject) evt.getSource()).toArray();
-			TreeModelEvent event = new TreeModelEvent(this, ancestorArray);
+			// Child events for Conversations have already been filtered out.
+			boolean structureChanged = false;
+			for (EventObject event : evt.getEvents()) {
+				if (event instanceof BurdeeChildEvent) {
+					structureChanged = true;
+					break;
+				}
+			}
+			
+			if (!structureChanged) {
+				super.transactionCommitted(evt);
+				return;
+			}
+			
+			// All of the children that were added or removed during the
+			// transaction share the same parent, so a single structure change
+			// on that parent covers the whole transaction, apart from the old
+			// parents of children that were moved in from elsewhere, and the
+			// order of its own parent if it was renamed.
+			for (EventObject event : evt.getEvents()) {
+				if (event instanceof PropertyChangeEvent) {
+					dropSortOrder((PropertyChangeEvent) event);
+				}
+			}
+			fireTreeStructureChanged(evt.getSource());
+			for (EventObject event : evt.getEvents()) {
+				if (event instanceof BurdeeChildEvent 
+						&& ((BurdeeChildEvent) event).getType() == EventType.MOVED
+						&& ((BurdeeChildEvent) event).getOldParent() != evt.getSource()) {
+					fireTreeStructureChanged(((BurdeeChildEvent) event).getOldParent());
+				}
+			}
+		}
+		
+		/**
+		 * Drops the sorted children of the parent of a {@link BurdeeObject}
+		 * that was renamed, or whose address changed.
+		 */
+		private void dropSortOrder(PropertyChangeEvent evt) {
+			if (BurdeeObject.NAME.getName().equals(evt.getPropertyName()) 
+					|| Contact.ADDRESS.getName().equals(evt.getPropertyName())) {
+				sortedChildren.remove(((BurdeeObject) evt.getSource()).getParent());
+			}
+		}
+		
+		/**
+		 * Tells the {@link TreeModelListener}s that the structure below a
+		 * {@link BurdeeObject} has changed.
+		 */
+		private void fireTreeStructureChanged(BurdeeObject parent) {
+			sortedChildren.remove(parent);
+			TreeModelEvent event = new TreeModelEvent(this, parent.getTreePath());
 			
 			for (TreeModelListener l : treeModelListeners) {
-				l.treeNodesChanged(event);
+				l.treeStructureChanged(event);
 			}
 		}
 	};
+
+	/**
+	 * Delivers the events of {@link #accountAdditionListener} on the event
+	 * dispatching thread. The {@link TreeModelListener}s of this model are
+	 * Swing components, while the contact list is mostly changed by network
+	 * threads.
+	 */
+	private final BurdeeListener edtAccountAdditionListener = 
+		new DispatchingBurdeeListener(accountAdditionListener, SwingEventDispatcher.getInstance());
 	
 	/**
 	 * Creates a new {@link ContactListTreeModel}.
@@ -133,7 +236,7 @@ public class ContactListTreeModel implements TreeModel {
 	public ContactListTreeModel(final BurdeeRoot root) {
 		this.root = root;
 		
-		BurdeeUtils.listenToHierarchy(root, accountAdditionListener);
+		root.addHierarchyListener(edtAccountAdditionListener, TREE_EVENTS);
 	}
 
 	@Override
@@ -147,34 +250,10 @@ public class ContactListTreeModel implements TreeModel {
 			return null;
 		}
 		
-		List<? extends BurdeeObject> children;
-		if (parent instanceof ContactCategory) {
-			children = ((ContactCategory) parent).getContacts();
-		} else {
-			children = ((BurdeeObject) parent).getChildren(); 
-		}
-		
+		List<BurdeeObject> children = getSortedChildren(parent);
 		if (index < 0 || index >= children.size()) {
 			return null;
 		}
-		
-		if (Account.class.isAssignableFrom(parent.getClass()) &&
-				index >= (children.size() - 
-						((Account) parent).getChildren(Conversation.class).size())) {
-			return null;
-		}
-		
-		children = new ArrayList<BurdeeObject>(children);
-		
-		if (Account.class.isAssignableFrom(parent.getClass())) {
-			for (int i = children.size() - 1; i >= 0; i--) {
-				if (children.get(i) instanceof Conversation) {
-					children.remove(i);
-				}
-			}
-		}
-		
-		Collections.sort(children, new BurdeeObjectNameComparator<BurdeeObject>());
 		return children.get(index);
 	}
 
@@ -182,9 +261,8 @@ public class ContactListTreeModel implements TreeModel {
 	public int getChildCount(Object parent) {
 		if (parent instanceof ContactCategory) {
 			return ((ContactCategory) parent).getContacts().size();
-		} else if (Account.class.isAssignableFrom(parent.getClass())) {
-			return ((Account) parent).getChildren().size() - 
-				((Account) parent).getChildren(Conversation.class).size();
+		} else if (parent instanceof Account || parent instanceof BurdeeRoot) {
+			return getSortedChildren(parent).size();
 		} else {
 			return ((BurdeeObject) parent).getChildren().size();
 		}
@@ -193,23 +271,75 @@ public class ContactListTreeModel implements TreeModel {
 	@Override
 	public int getIndexOfChild(Object parent, Object child) {
 		if (parent == null || child == null || parent instanceof Conversation ||
-				child instanceof Conversation ||
-				!(((BurdeeObject) parent).getChildren().contains(child) ||
-						(parent instanceof ContactCategory && 
-								((ContactCategory) parent).getContacts().contains(child)))) {
+				child instanceof Conversation) {
 			return -1;
 		}
 		
-		List<? extends BurdeeObject> children;
-		if (parent instanceof ContactCategory && child instanceof Contact) {
-			children = ((ContactCategory) parent).getContacts();
+		List<BurdeeObject> children = getSortedChildren(parent);
+		int index = Collections.binarySearch(children, (BurdeeObject) child, NAME_ORDER);
+		if (index >= 0) {
+			// Children with the same name compare as equal, so the child may
+			// be any of the neighbours with its name.
+			for (int i = index; i >= 0 
+					&& NAME_ORDER.compare(children.get(i), (BurdeeObject) child) == 0; i--) {
+				if (children.get(i) == child) {
+					return i;
+				}
+			}
+			for (int i = index + 1; i < children.size() 
+					&& NAME_ORDER.compare(children.get(i), (BurdeeObject) child) == 0; i++) {
+				if (children.get(i) == child) {
+					return i;
+				}
+			}
+		}
+		
+		// The child may have been renamed, or added or removed, since the
+		// children were sorted, until the event reaches this model.
+		for (int i = 0; i < children.size(); i++) {
+			if (children.get(i) == child) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the children of a node of the tree in the order they are shown.
+	 * The children of the {@link BurdeeRoot} and of {@link Account}s are
+	 * kept in {@link #sortedChildren}. The {@link Contact}s of a
+	 * {@link ContactCategory} are sorted on every call, since a
+	 * {@link ContactCategory} fires no event when its {@link Contact}s
+	 * change.
+	 * 
+	 * @param parent
+	 *            The node to get the children of.
+	 * @return The sorted children, which must not be modified.
+	 */
+	private List<BurdeeObject> getSortedChildren(Object parent) {
+		List<BurdeeObject> children = sortedChildren.get(parent);
+		if (children != null) {
+			return children;
+		}
+		
+		if (parent instanceof ContactCategory) {
+			children = new ArrayList<BurdeeObject>(((ContactCategory) parent).getContacts());
 		} else {
-			children = ((BurdeeObject) parent).getChildren();
+			children = new ArrayList<BurdeeObject>(((BurdeeObject) parent).getChildren());
+		}
+		if (parent instanceof Account) {
+			for (int i = children.size() - 1; i >= 0; i--) {
+				if (children.get(i) instanceof Conversation) {
+					children.remove(i);
+				}
+			}
 		}
+		Collections.sort(children, NAME_ORDER);
 		
-		children = new ArrayList<BurdeeObject>(children);
-		Collections.sort(children, new BurdeeObjectNameComparator<BurdeeObject>());
-		return children.indexOf(child);
+		if (parent instanceof Account || parent instanceof BurdeeRoot) {
+			sortedChildren.put(parent, children);
+		}
+		return children;
 	}
 
 	@Override
@@ -30,11 +30,15 @@ import javax.swing.event.ChangeListener;
 import net.miginfocom.swing.MigLayout;
 import ca.burdee.object.AbstractBurdeeListener;
 import ca.burdee.object.BurdeeChildEvent;
+import ca.burdee.object.BurdeeEventFilter;
 import ca.burdee.object.BurdeeListener;
+import ca.burdee.object.BurdeeObject;
 import ca.burdee.object.BurdeeRoot;
 import ca.burdee.object.account.Account;
 import ca.burdee.object.contact.Contact;
 import ca.burdee.object.contact.Conversation;
+import ca.burdee.object.dispatch.DispatchingBurdeeListener;
+import ca.burdee.object.dispatch.SwingEventDispatcher;
 
 /**
  * This {@link JFrame} displays all of the {@link Conversation}s the user is
@@ -57,37 +61,47 @@ public class ConversationFrame extends JFrame {
 
 	/**
 	 * This {@link BurdeeListener} listens to newly created and closed
-	 * {@link Conversation}s.
+	 * {@link Conversation}s. It is attached to the hierarchy of the
+	 * {@link BurdeeRoot} through {@link #edtConversationListener}, and only
+	 * receives the child events of {@link Conversation}s.
 	 */
 	private BurdeeListener conversationListener = new AbstractBurdeeListener() {
 		@Override
 		public void childAdded(BurdeeChildEvent evt) {
-			if (evt.getChild() instanceof Conversation) {
-				evt.getChild().addBurdeeListener(this);
+			List<BurdeeObject> children = evt.getChildren();
+			int[] indices = evt.getIndices();
+			for (int i = 0; i < children.size(); i++) {
+				// Other Conversations may have been closed between the event
+				// being fired and it being delivered on this thread.
 				tabbedPane.insertTab(
-						evt.getChild().getName(), 
+						children.get(i).getName(), 
 						null, 
-						new ConversationPanel((Conversation) evt.getChild()), 
+						new ConversationPanel((Conversation) children.get(i)), 
 						null, 
-						evt.getIndex());
+						Math.min(indices[i], tabbedPane.getTabCount()));
 			}
 		}
 		
 		public void childRemoved(BurdeeChildEvent evt) {
-			if (evt.getChild() instanceof Conversation) {
-				evt.getChild().removeBurdeeListener(this);
-				
+			for (BurdeeObject child : evt.getChildren()) {
 				for (int i = 0; i < tabbedPane.getTabCount(); i++) {
-					if (((ConversationPanel) tabbedPane.getTabComponentAt(i)).getConversation() == evt.getChild()) {
+					if (((ConversationPanel) tabbedPane.getTabComponentAt(i)).getConversation() == child) {
 						tabbedPane.removeTabAt(i);
 						break;
 					}
 				}
-				
 			}
 		}
 	};
 
+	/**
+	 * Delivers the events of {@link #conversationListener} on the event
+	 * dispatching thread, since {@link Conversation}s are started and closed
+	 * by network threads as well.
+	 */
+	private final BurdeeListener edtConversationListener = 
+		new DispatchingBurdeeListener(conversationListener, SwingEventDispatcher.getInstance());
+
 	/**
 	 * Creates a new {@link ConversationFrame}. Newly added and closed
 	 * {@link Conversation}s are automatically displayed as such in its
@@ -98,22 +112,17 @@ public class ConversationFrame extends JFrame {
 		super();
 		this.root = root;
 		
-		for (Account account : root.getChildren(Account.class)) {
-			account.addBurdeeListener(conversationListener);
-			for (Conversation conversation : account.getChildren(Conversation.class)) {
-				conversation.addBurdeeListener(conversationListener);
-			}
-		}
+		root.addHierarchyListener(edtConversationListener, 
+				BurdeeEventFilter.childEvents(Conversation.class));
 		
 		addWindowListener(new WindowAdapter() {
 			@Override
 			public void windowClosed(WindowEvent e) {
+				root.removeHierarchyListener(edtConversationListener);
 				for (Account account : root.getChildren(Account.class)) {
-					account.removeBurdeeListener(conversationListener);
 					List<Conversation> conversations = account.getChildren(Conversation.class);
 					for (int i = conversations.size() - 1; i >= 0; i--) {
 						Conversation conversation = conversations.get(i);
-						conversation.removeBurdeeListener(conversationListener);
 						account.removeChild(conversation);
 					}
 				}